@@ -0,0 +1,57 @@
+package dotty.tools.benchmarks
+
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import dotty.tools.dotc.core.Names.termName
+import dotty.tools.dotc.core.tasty.TastyUnpickler
+
+/** Several threads unpickling the name tables of TASTy files at once, which looks up names
+ *  that are already in the name table, and entering new names at once.
+ */
+@BenchmarkMode(Array(Mode.AverageTime))
+@Fork(2)
+@Threads(4)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+class NameTableBenchmark:
+  var tastyFiles: Array[Array[Byte]] = null
+  val threadCount = AtomicInteger()
+
+  @Setup
+  def prepare(): Unit =
+    val loader = getClass.getClassLoader
+    tastyFiles =
+      List("scala/quoted/Quotes.tasty", "scala/Tuple.tasty", "scala/deriving/Mirror.tasty")
+        .flatMap(path => Option(loader.getResourceAsStream(path)))
+        .map(in => try in.readAllBytes() finally in.close())
+        .toArray
+    assert(tastyFiles.nonEmpty, "no TASTy files on the benchmark classpath")
+
+  @Benchmark
+  def unpickleNames(bh: Blackhole): Unit =
+    var i = 0
+    while i < tastyFiles.length do
+      bh.consume(new TastyUnpickler(tastyFiles(i)).nameAtRef.contents.size)
+      i += 1
+
+  @Benchmark
+  def enterNewNames(fresh: FreshNames, bh: Blackhole): Unit =
+    var i = 0
+    while i < 100 do
+      fresh.count += 1
+      bh.consume(termName(fresh.prefix + fresh.count))
+      i += 1
+
+/** The names entered by one thread of `NameTableBenchmark.enterNewNames` */
+@State(Scope.Thread)
+class FreshNames:
+  var prefix: String = null
+  var count = 0
+
+  @Setup
+  def prepare(benchmark: NameTableBenchmark): Unit =
+    prefix = s"fresh${benchmark.threadCount.incrementAndGet()}$$"
@@ -0,0 +1,76 @@
+package dotty.tools.benchmarks.collection
+
+import compiletime.uninitialized
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.{ConcurrentHashMap, TimeUnit}
+import scala.collection.concurrent.{LongTrieMap, TrieMap}
+
+/** Lookups and updates with `Long` keys in `LongTrieMap`, `TrieMap` and `ConcurrentHashMap` */
+@BenchmarkMode(Array(Mode.AverageTime))
+@Fork(2)
+@Threads(4)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+class LongTrieMapBenchmark {
+
+  @Param(Array("1000", "100000"))
+  var size: Int = uninitialized
+
+  var keys: Array[Long] = uninitialized
+  var longTrieMap: LongTrieMap[String] = uninitialized
+  var trieMap: TrieMap[Long, String] = uninitialized
+  var concurrentHashMap: ConcurrentHashMap[Long, String] = uninitialized
+
+  @Setup
+  def prepare: Unit = {
+    val random = new scala.util.Random(42)
+    keys = Array.fill(size)(random.nextLong())
+    longTrieMap = new LongTrieMap[String]
+    trieMap = new TrieMap[Long, String]
+    concurrentHashMap = new ConcurrentHashMap[Long, String]
+    for (k <- keys) {
+      longTrieMap.update(k, "v")
+      trieMap.update(k, "v")
+      concurrentHashMap.put(k, "v")
+    }
+  }
+
+  @Benchmark
+  def getLongTrieMap(bh: Blackhole): Unit = {
+    var i = 0
+    while (i < keys.length) { bh.consume(longTrieMap.getOrElse(keys(i), null)); i += 1 }
+  }
+
+  @Benchmark
+  def getTrieMap(bh: Blackhole): Unit = {
+    var i = 0
+    while (i < keys.length) { bh.consume(trieMap.getOrElse(keys(i), null)); i += 1 }
+  }
+
+  @Benchmark
+  def getConcurrentHashMap(bh: Blackhole): Unit = {
+    var i = 0
+    while (i < keys.length) { bh.consume(concurrentHashMap.get(keys(i))); i += 1 }
+  }
+
+  @Benchmark
+  def putLongTrieMap(): Unit = {
+    var i = 0
+    while (i < keys.length) { longTrieMap.update(keys(i), "w"); i += 1 }
+  }
+
+  @Benchmark
+  def putTrieMap(): Unit = {
+    var i = 0
+    while (i < keys.length) { trieMap.update(keys(i), "w"); i += 1 }
+  }
+
+  @Benchmark
+  def putConcurrentHashMap(): Unit = {
+    var i = 0
+    while (i < keys.length) { concurrentHashMap.put(keys(i), "w"); i += 1 }
+  }
+}
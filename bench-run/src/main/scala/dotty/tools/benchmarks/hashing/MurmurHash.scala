@@ -0,0 +1,39 @@
+package dotty.tools.benchmarks.hashing
+
+import scala.util.hashing.MurmurHash3
+
+import org.openjdk.jmh.annotations._
+
+@State(Scope.Thread)
+class MurmurHash {
+  @Param(Array("1024"))
+  var size: Int = _
+  var ints: Array[Int] = _
+  var longs: Array[Long] = _
+  var bytes: Array[Byte] = _
+  var string: String = _
+
+  @Setup
+  def setup(): Unit = {
+    val random = new scala.util.Random(42)
+    ints = Array.fill(size)(random.nextInt())
+    longs = Array.fill(size)(random.nextLong())
+    bytes = Array.fill(size)(random.nextInt().toByte)
+    string = random.alphanumeric.take(size).mkString
+  }
+
+  @Benchmark
+  def intArray(): Int = MurmurHash3.arrayHash(ints)
+
+  @Benchmark
+  def longArray(): Int = MurmurHash3.arrayHash(longs)
+
+  @Benchmark
+  def byteArray(): Int = MurmurHash3.bytesHash(bytes)
+
+  @Benchmark
+  def byteArrayAsSeq(): Int = MurmurHash3.arrayHash(bytes)
+
+  @Benchmark
+  def longString(): Int = MurmurHash3.stringHash(string)
+}
@@ -0,0 +1,57 @@
+package dotty.tools.benchmarks.runtime
+
+import org.openjdk.jmh.annotations._
+
+/** Benchmarks `==` on `Any`, which goes through `BoxesRunTime.equals2`,
+ *  and generic arithmetic through `BoxesRunTime.add`.
+ *
+ *  `kind` selects the boxed values compared with each other:
+ *  `int`, `long`, `double`, `bigint` or `mixed` (all of them interleaved).
+ */
+@State(Scope.Thread)
+class BoxedEquality {
+  @Param(Array("mixed"))
+  var kind: String = _
+  val size: Int = 1024
+  var xs: Array[Any] = _
+  var ys: Array[Any] = _
+
+  @Setup
+  def setup(): Unit = {
+    def value(i: Int, kind: String): Any = kind match {
+      case "int"    => i
+      case "long"   => i.toLong
+      case "double" => i.toDouble
+      case "bigint" => BigInt(i)
+      case "mixed"  => value(i, Array("int", "long", "double", "bigint")(i % 4))
+    }
+    xs = Array.tabulate(size)(value(_, kind))
+    // same values, but with the kinds rotated in the mixed case
+    ys = Array.tabulate(size)(i => if (kind == "mixed") value(i, Array("long", "double", "bigint", "int")(i % 4)) else value(i, kind))
+  }
+
+  @Benchmark
+  def anyEquals(): Int = {
+    var i = 0
+    var n = 0
+    while (i < size) {
+      if (xs(i) == ys(i)) n += 1
+      i += 1
+    }
+    n
+  }
+
+  @Benchmark
+  def genericAdd(): Any = {
+    var acc: Object = Integer.valueOf(0)
+    var i = 0
+    while (i < size) {
+      xs(i) match {
+        case _: BigInt =>
+        case x => acc = scala.runtime.BoxesRunTime.add(acc, x.asInstanceOf[Object])
+      }
+      i += 1
+    }
+    acc
+  }
+}
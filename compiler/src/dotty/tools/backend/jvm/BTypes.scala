@@ -563,16 +563,12 @@ abstract class BTypes { self =>
    * A ClassBType represents a class or interface type. The necessary information to build a
    * ClassBType is extracted from compiler symbols and types, see BTypesFromSymbols.
    *
-   * The `offset` and `length` fields are used to represent the internal name of the class. They
-   * are indices into some character array. The internal name can be obtained through the method
-   * `internalNameString`, which is abstract in this component. Name creation is assumed to be
-   * hash-consed, so if two ClassBTypes have the same internal name, they NEED to have the same
-   * `offset` and `length`.
-   *
-   * The actual implementation in subclass BTypesFromSymbols uses the global `chrs` array from the
-   * name table. This representation is efficient because the JVM class name is obtained through
-   * `classSymbol.javaBinaryName`. This already adds the necessary string to the `chrs` array,
-   * so it makes sense to reuse the same name table in the backend.
+   * The `internalName` field is the internal name of the class, which BTypesFromSymbols obtains
+   * through `classSymbol.javaBinaryName`. That name is entered in the compiler's name table, which
+   * is split into `Names.Stripes` (16) NameTables, each with its own lock and its own chunks of
+   * characters. A `SimpleName` refers to the characters of its chunk through its `chars` array and
+   * the `offset` of its first character, so the internal name is not tied to a single shared
+   * character array, and two ClassBTypes of the same class are compared by their `internalName`.
    *
    * ClassBType is not a case class because we want a custom equals method, and because the
    * extractor extracts the internalName, which is what you typically need.
@@ -732,7 +728,7 @@ abstract class BTypes { self =>
     }
 
     /**
-     * Custom equals / hashCode: we only compare the name (offset / length)
+     * Custom equals / hashCode: we only compare the internal name
      */
     override def equals(o: Any): Boolean = (this eq o.asInstanceOf[Object]) || (o match {
       case c: ClassBType @unchecked => c.internalName == this.internalName
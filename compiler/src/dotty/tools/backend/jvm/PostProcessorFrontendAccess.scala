@@ -59,6 +59,7 @@ object PostProcessorFrontendAccess {
     def mainClass: Option[String]
 
     def jarCompressionLevel: Int
+    def skipUnchangedOutput: Boolean
     def backendParallelism: Int
     def backendMaxWorkerQueue: Option[Int]
     def outputOnlyTasty: Boolean
@@ -125,7 +126,10 @@ object PostProcessorFrontendAccess {
       override val outputDirectory: AbstractFile = s.outputDir.value
       override val mainClass: Option[String] = s.XmainClass.valueSetByUser
       override val jarCompressionLevel: Int = s.XjarCompressionLevel.value
-      override val backendParallelism: Int = s.YbackendParallelism.value
+      override val skipUnchangedOutput: Boolean = s.XskipUnchangedOutput.value
+      override val backendParallelism: Int = s.YbackendParallelism.value match
+        case 0 => Runtime.getRuntime.availableProcessors
+        case n => n
       override val backendMaxWorkerQueue: Option[Int] = s.YbackendWorkerQueue.valueSetByUser
 
       @annotation.nowarn("cat=deprecation")
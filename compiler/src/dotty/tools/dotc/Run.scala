@@ -43,7 +43,7 @@ import java.util.{Timer, TimerTask}
 
 /** A compiler run. Exports various methods to compile source files */
 class Run(comp: Compiler, ictx: Context)
-extends ImplicitRunInfo, ConstraintRunInfo, cc.CaptureRunInfo {
+extends ImplicitRunInfo, ConstraintRunInfo, cc.CaptureRunInfo, SubtypeCacheRunInfo {
 
   /** Default timeout to stop looking for further implicit suggestions, in ms.
    *  This is usually for the first import suggestion; subsequent suggestions
@@ -533,6 +533,7 @@ extends ImplicitRunInfo, ConstraintRunInfo, cc.CaptureRunInfo {
   def printSummary(): Unit = {
     printMaxConstraint()
     printMaxPath()
+    printSubtypeCacheStats()
     val r = runContext.reporter
     if !r.errorsReported then
       profile.printSummary()
@@ -544,6 +545,7 @@ extends ImplicitRunInfo, ConstraintRunInfo, cc.CaptureRunInfo {
     super[ImplicitRunInfo].reset()
     super[ConstraintRunInfo].reset()
     super[CaptureRunInfo].reset()
+    super[SubtypeCacheRunInfo].reset()
     myCtx = null
     myUnits = Nil
     myUnitsCached = Nil
@@ -5,6 +5,7 @@ package dotty.tools
 package dotc.classpath
 
 import java.net.URL
+import java.util.concurrent.ConcurrentHashMap
 import scala.collection.mutable.ArrayBuffer
 import scala.collection.immutable.ArraySeq
 import dotc.util
@@ -26,9 +27,45 @@ case class AggregateClassPath(aggregates: Seq[ClassPath]) extends ClassPath {
       case Some(x) => x
     }
   }
-  private val packageIndex: collection.mutable.Map[String, Seq[ClassPath]] = collection.mutable.Map()
-  private def aggregatesForPackage(pkg: PackageName): Seq[ClassPath] = packageIndex.synchronized {
-    packageIndex.getOrElseUpdate(pkg.dottedString, aggregates.filter(_.hasPackage(pkg)))
+
+  /** The aggregates containing a given package, filled lazily.
+   *
+   *  Lookups are lock free: the value for a package only depends on `aggregates`, so two threads
+   *  missing the same package compute equal values and the first one published is kept.
+   */
+  private val packageIndex = new ConcurrentHashMap[String, Seq[ClassPath]]()
+  private def aggregatesForPackage(pkg: PackageName): Seq[ClassPath] =
+    cached(packageIndex, pkg.dottedString)(aggregates.filter(_.hasPackage(pkg)))
+
+  /** Can the entries of `cp` be cached? This is the case of archives, which are reindexed by
+   *  `ZipAndJarClassPathFactory` when they change, and of the JDK, but not of directories,
+   *  such as an output directory also on the classpath.
+   */
+  private def isImmutable(cp: ClassPath): Boolean = cp match {
+    case _: ZipArchiveFileLookup[?] | _: JrtClassPath | _: CtSymClassPath => true
+    case _ => false
+  }
+
+  /** Whether every aggregate is immutable, so that the merged entries of a package can be cached */
+  private lazy val allImmutable: Boolean = aggregates.forall(isImmutable)
+
+  /** The merged entries of each package, if `allImmutable` */
+  private val listCache = new ConcurrentHashMap[String, ClassPathEntries]()
+
+  /** The entries of each package in the immutable aggregates, in the order of `aggregates`, with `null`
+   *  for the other aggregates. Those are listed again on every call, even if they did not contain the
+   *  package when it was first listed: a directory may gain classes in a package only found in jars so far.
+   */
+  private val immutableEntriesCache = new ConcurrentHashMap[String, Array[ClassPathEntries | Null]]()
+
+  private def cached[T](cache: ConcurrentHashMap[String, T], key: String)(compute: => T): T = {
+    val value = cache.get(key)
+    if (value != null) value
+    else {
+      val computed = compute
+      val existing = cache.putIfAbsent(key, computed)
+      if (existing != null) existing else computed
+    }
   }
 
   override def asURLs: Seq[URL] = aggregates.flatMap(_.asURLs)
@@ -49,14 +86,29 @@ case class AggregateClassPath(aggregates: Seq[ClassPath]) extends ClassPath {
     getDistinctEntries(_.sources(inPackage))
 
   override private[dotty] def hasPackage(pkg: PackageName): Boolean = aggregates.exists(_.hasPackage(pkg))
-  override private[dotty] def list(inPackage: PackageName): ClassPathEntries = {
+  override private[dotty] def list(inPackage: PackageName): ClassPathEntries =
+    if (allImmutable) cached(listCache, inPackage.dottedString)(computeList(inPackage, null))
+    else computeList(inPackage, cached(immutableEntriesCache, inPackage.dottedString) {
+      aggregates.iterator.map[ClassPathEntries | Null](cp => if (isImmutable(cp)) listEntries(cp, inPackage) else null).toArray
+    })
+
+  /** The merged entries of `inPackage`, taking those of the `i`th aggregate from `immutableEntries(i)`
+   *  unless `immutableEntries` or that element is `null`.
+   */
+  private def computeList(inPackage: PackageName, immutableEntries: Array[ClassPathEntries | Null] | Null): ClassPathEntries = {
     val packages: java.util.HashSet[PackageEntry] = new java.util.HashSet[PackageEntry]()
     val classesAndSourcesBuffer = collection.mutable.ArrayBuffer[ClassRepresentation]()
     val onPackage: PackageEntry => Unit = packages.add(_)
     val onClassesAndSources: ClassRepresentation => Unit = classesAndSourcesBuffer += _
 
+    var i = 0
     aggregates.foreach { cp =>
-      try {
+      val entries = if (immutableEntries == null) null else immutableEntries(i)
+      if (entries != null) {
+        entries.packages.foreach(entry => packages.add(entry))
+        classesAndSourcesBuffer ++= entries.classesAndSources
+      }
+      else wrapIOException {
         cp match {
           case ecp: EfficientClassPath =>
             ecp.list(inPackage, onPackage, onClassesAndSources)
@@ -65,12 +117,8 @@ case class AggregateClassPath(aggregates: Seq[ClassPath]) extends ClassPath {
             entries._1.foreach(entry => packages.add(entry))
             classesAndSourcesBuffer ++= entries._2
         }
-      } catch {
-        case ex: java.io.IOException =>
-          val e = FatalError(ex.getMessage)
-          e.initCause(ex)
-          throw e
       }
+      i += 1
     }
 
     val distinctPackages: Seq[PackageEntry] = {
@@ -81,6 +129,18 @@ case class AggregateClassPath(aggregates: Seq[ClassPath]) extends ClassPath {
     ClassPathEntries(distinctPackages, distinctClassesAndSources)
   }
 
+  private def listEntries(cp: ClassPath, inPackage: PackageName): ClassPathEntries =
+    wrapIOException(cp.list(inPackage))
+
+  private def wrapIOException[T](op: => T): T =
+    try op
+    catch {
+      case ex: java.io.IOException =>
+        val e = FatalError(ex.getMessage)
+        e.initCause(ex)
+        throw e
+    }
+
   /** Returns only one entry for each name.
    *
    *  If there's both a source and a class entry, it
@@ -32,7 +32,7 @@ sealed trait ZipAndJarFileLookupFactory {
   protected def createForZipFile(zipFile: AbstractFile, release: Option[String]): ClassPath
 
   private def createUsingCache(zipFile: AbstractFile, release: Option[String]): ClassPath =
-    cache.getOrCreate(zipFile.file.toPath, () => createForZipFile(zipFile, release))
+    cache.getOrCreate(zipFile.file.toPath, release, () => createForZipFile(zipFile, release))
 }
 
 /**
@@ -173,28 +173,44 @@ object ZipAndJarSourcePathFactory extends ZipAndJarFileLookupFactory {
   override protected def createForZipFile(zipFile: AbstractFile, release: Option[String]): ClassPath = ZipArchiveSourcePath(zipFile.file)
 }
 
+/** A cache of values derived from files, invalidated when the file changes on disk.
+ *
+ *  The cache is shared by all the compilers running in the JVM, possibly concurrently.
+ *  Lookups of entries that are already computed do not lock, and two different
+ *  files can be indexed in parallel: only callers asking for the same file wait
+ *  for each other.
+ */
 final class FileBasedCache[T] {
   private case class Stamp(lastModified: FileTime, fileKey: Object)
-  private val cache = collection.mutable.Map.empty[java.nio.file.Path, (Stamp, T)]
+  private case class Key(path: java.nio.file.Path, variant: Option[String])
+  private class Cached(val stamp: Stamp, create: () => T):
+    lazy val value: T = create()
+
+  private val cache = new java.util.concurrent.ConcurrentHashMap[Key, Cached]
+
+  def getOrCreate(path: java.nio.file.Path, create: () => T): T = getOrCreate(path, None, create)
 
-  def getOrCreate(path: java.nio.file.Path, create: () => T): T = cache.synchronized {
+  /** Get the value cached for `path`, creating it if it is missing or stale.
+   *
+   *  @param variant distinguishes values derived from the same file in different
+   *                 ways, e.g. the classpath of a multi-release jar for a given release
+   */
+  def getOrCreate(path: java.nio.file.Path, variant: Option[String], create: () => T): T = {
     val attrs = Files.readAttributes(path, classOf[BasicFileAttributes])
     val lastModified = attrs.lastModifiedTime()
     // only null on some platforms, but that's okay, we just use the last modified timestamp as our stamp
     val fileKey = attrs.fileKey()
     val stamp = Stamp(lastModified, fileKey)
-    cache.get(path) match {
-      case Some((cachedStamp, cached)) if cachedStamp == stamp => cached
-      case _ =>
-        val value = create()
-        cache.put(path, (stamp, value))
-        value
-    }
+    val cached = cache.compute(Key(path, variant), (_, existing) =>
+      if existing != null && existing.stamp == stamp then existing
+      else Cached(stamp, create)
+    )
+    // computed outside of `compute` so that the map is not locked while indexing the file
+    cached.value
   }
 
-  def clear(): Unit = cache.synchronized {
+  def clear(): Unit =
     // TODO support closing
     // cache.valuesIterator.foreach(_.close())
     cache.clear()
-  }
 }
@@ -352,6 +352,7 @@ private sealed trait XSettings:
   val XnoGenericSig: Setting[Boolean] = BooleanSetting(AdvancedSetting, "Xno-generic-signatures", "Suppress generation of generic signatures for Java.")
   val Xdumpclasses: Setting[String] = StringSetting(AdvancedSetting, "Xdump-classes", "dir", "Dump the generated bytecode to .class files (useful for reflective compilation that utilizes in-memory classloaders).", "")
   val XjarCompressionLevel: Setting[Int] = IntChoiceSetting(AdvancedSetting, "Xjar-compression-level", "compression level to use when writing jar files", Deflater.DEFAULT_COMPRESSION to Deflater.BEST_COMPRESSION, Deflater.DEFAULT_COMPRESSION)
+  val XskipUnchangedOutput: Setting[Boolean] = BooleanSetting(AdvancedSetting, "Xskip-unchanged-output", "Do not rewrite class and TASTy files in the output directory whose content did not change, so that they keep their modification time.")
   val XkindProjector: Setting[String] = ChoiceSetting(AdvancedSetting, "Xkind-projector", "[underscores, enable, disable]", "Allow `*` as type lambda placeholder to be compatible with kind projector. When invoked as -Xkind-projector:underscores will repurpose `_` to be a type parameter placeholder, this will disable usage of underscore as a wildcard.", List("disable", "", "underscores"), "disable", legacyArgs = true)
 
   /** Documentation related settings */
@@ -418,7 +419,8 @@ private sealed trait YSettings:
   val Yimports: Setting[List[String]] = MultiStringSetting(ForkSetting, "Yimports", helpArg="", "Custom root imports. If set, none of scala.*, java.lang.*, or Predef.* will be imported unless explicitly included.")
   val YnoPredef: Setting[Boolean] = BooleanSetting(ForkSetting, "Yno-predef", "Compile without importing Predef.")
   val Yskip: Setting[List[String]] = PhasesSetting(ForkSetting, "Yskip", "Skip")
-  val YbackendParallelism: Setting[Int] = IntChoiceSetting(ForkSetting, "Ybackend-parallelism", "maximum worker threads for backend", 1 to 16, 1)
+  val YbackendParallelism: Setting[Int] = IntChoiceSetting(ForkSetting, "Ybackend-parallelism", "maximum worker threads for backend, 0 for one per available processor", 0 to 1024, 1)
+  val YpicklerParallelism: Setting[Int] = IntChoiceSetting(ForkSetting, "Ypickler-parallelism", "maximum worker threads for compacting and assembling TASTy, 0 for one per available processor", 0 to 1024, 1)
   val YbackendWorkerQueue: Setting[Int] = IntChoiceSetting(ForkSetting, "Ybackend-worker-queue", "backend threads worker queue size", 0 to 1000, 0)
   val YstopAfter: Setting[List[String]] = PhasesSetting(ForkSetting, "Ystop-after", "Stop after", aliases = List("-stop")) // backward compat
   val YstopBefore: Setting[List[String]] = PhasesSetting(ForkSetting, "Ystop-before", "Stop before") // stop before erasure as long as we have not debugged it fully
@@ -426,6 +428,7 @@ private sealed trait YSettings:
   val YdetailedStats: Setting[Boolean] = BooleanSetting(ForkSetting, "Ydetailed-stats", "Show detailed internal compiler stats (needs Stats.enabled to be set to true).")
   val YprintPos: Setting[Boolean] = BooleanSetting(ForkSetting, "Yprint-pos", "Show tree positions.")
   val YprintPosSyms: Setting[Boolean] = BooleanSetting(ForkSetting, "Yprint-pos-syms", "Show symbol definitions positions.")
+  val YsubtypeCacheSize: Setting[Int] = IntSetting(ForkSetting, "Ysubtype-cache-size", "Number of entries of a cache of subtype checks between ground types, 0 to disable it.", 0)
   val YnoDeepSubtypes: Setting[Boolean] = BooleanSetting(ForkSetting, "Yno-deep-subtypes", "Throw an exception on deep subtyping call stacks.")
   val YnoSuspendedUnits: Setting[Boolean] = BooleanSetting(ForkSetting, "Yno-suspended-units", "Do not suspend units, e.g. when calling a macro defined in the same run. This will error instead of suspending.")
   val YnoPatmatOpt: Setting[Boolean] = BooleanSetting(ForkSetting, "Yno-patmat-opt", "Disable all pattern matching optimizations.")
@@ -452,7 +455,13 @@ private sealed trait YSettings:
   val YprofileDestination: Setting[String] = StringSetting(ForkSetting, "Yprofile-destination", "file", "Where to send profiling output - specify a file, default is to the console.", "", depends = List(YprofileEnabled -> true))
   val YprofileExternalTool: Setting[List[String]] = PhasesSetting(ForkSetting, "Yprofile-external-tool", "Enable profiling for a phase using an external tool hook. Generally only useful for a single phase.", "typer", depends = List(YprofileEnabled -> true))
   val YprofileRunGcBetweenPhases: Setting[List[String]] = PhasesSetting(ForkSetting, "Yprofile-run-gc", "Run a GC between phases - this allows heap size to be accurate at the expense of more time. Specify a list of phases, or *", "_", depends = List(YprofileEnabled -> true))
-  val YprofileTrace: Setting[String]  = StringSetting(ForkSetting, "Yprofile-trace", "file", s"Capture trace of compilation in JSON Chrome Trace format to the specified file. This option requires ${YprofileEnabled.name}. The output file can be visualized using https://ui.perfetto.dev/.", "", depends = List(YprofileEnabled -> true))
+  val YprofileAllocations: Setting[String] = StringSetting(ForkSetting, "Yprofile-allocations", "file", "Write to the specified file a report of the memory allocated by each phase, compilation unit and top-level definition.", "", depends = List(YprofileEnabled -> true))
+  val YprofileHeapHistogram: Setting[List[String]] = PhasesSetting(ForkSetting, "Yprofile-heap-histogram", "Add to the report of -Yprofile-allocations a histogram of the live types, symbols, trees and names after the given phases. Each histogram runs a full GC.", depends = List(YprofileEnabled -> true))
+  val YprofileHotspots: Setting[String] = StringSetting(ForkSetting, "Yprofile-hotspots", "file", "Write to the specified file the total and self time of each type checked definition, implicit search, inline call and macro expansion, as JSON if its name ends with .json. Two JSON summaries can be compared with dotty.tools.dotc.profile.HotspotReport.", "", depends = List(YprofileEnabled -> true))
+  val YprofileJfr: Setting[Boolean] = BooleanSetting(ForkSetting, "Yprofile-jfr", "Emit Java Flight Recorder events for phases, compilation units, implicit searches, inline and macro expansions and symbol completions. They are only recorded while a flight recording is running, and can be summarized with dotty.tools.dotc.profile.JfrReport. Ignored if -Yprofile-enabled is set.")
+  val YprofileTrace: Setting[String]  = StringSetting(ForkSetting, "Yprofile-trace", "file", s"Capture trace of compilation in JSON Chrome Trace format to the specified file. This option requires ${YprofileEnabled.name}. The output file can be visualized using https://ui.perfetto.dev/. It is compressed if its name ends with .gz.", "", depends = List(YprofileEnabled -> true))
+  val YprofileTraceMinDuration: Setting[Int] = IntSetting(ForkSetting, "Yprofile-trace-min-duration", "Drop the trace events shorter than the given number of microseconds, together with the events nested in them.", 0, depends = List(YprofileEnabled -> true))
+  val YprofileTraceSample: Setting[Int] = IntSetting(ForkSetting, "Yprofile-trace-sample", "Only trace one in every N nested events, such as the type checking of definitions and implicit searches, together with the events nested in them.", 1, depends = List(YprofileEnabled -> true))
 
   val YbestEffort: Setting[Boolean] = BooleanSetting(ForkSetting, "Ybest-effort", "Enable best-effort compilation attempting to produce betasty to the META-INF/best-effort directory, regardless of errors, as part of the pickler phase.")
   val YwithBestEffortTasty: Setting[Boolean] = BooleanSetting(ForkSetting, "Ywith-best-effort-tasty", "Allow to compile using best-effort tasty files. If such file is used, the compiler will stop after the pickler phase.")
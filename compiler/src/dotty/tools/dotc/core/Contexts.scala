@@ -544,7 +544,7 @@ object Contexts {
     def platform: Platform                 = base.platform
     def pendingUnderlying: util.HashSet[Type]      = base.pendingUnderlying
     def uniqueNamedTypes: Uniques.NamedTypeUniques = base.uniqueNamedTypes
-    def uniques: util.WeakHashSet[Type]            = base.uniques
+    def uniques: Uniques                           = base.uniques
 
     def initialize()(using Context): Unit = base.initialize()
 
@@ -1096,9 +1096,9 @@ object Contexts {
       charArray
 
     def reset(): Unit =
-      uniques.clear()
-      uniqueAppliedTypes.clear()
-      uniqueNamedTypes.clear()
+      uniques.newRun()
+      uniqueAppliedTypes.newRun()
+      uniqueNamedTypes.newRun()
       emptyTypeBounds = null
       emptyWildcardBounds = null
       errorsToBeReported = false
@@ -1117,5 +1117,12 @@ object Contexts {
     def checkSingleThreaded(): Unit =
       if (thread == null) thread = Thread.currentThread()
       else assert(thread == Thread.currentThread(), "illegal multithreaded access to ContextBase")
+
+    /** Allow the next run to happen on another thread. This is used when a
+     *  context base is handed over between threads once a run has completed,
+     *  e.g. by a pool of warm compilers.
+     */
+    def releaseThread(): Unit =
+      thread = null
   }
 }
@@ -77,6 +77,9 @@ class GadtConstraint private (
   /** GADT constraint narrows bounds of at least one variable */
   def isNarrowing: Boolean = wasConstrained
 
+  /** Does the constraint have no GADT symbols? */
+  def isEmpty: Boolean = mapping.isEmpty
+
   def fullBounds(param: TypeParamRef)(using Context): TypeBounds =
     nonParamBounds(param).derivedTypeBounds(fullLowerBound(param), fullUpperBound(param))
 
@@ -11,6 +11,7 @@ import config.Config
 import util.{LinearMap, HashSet}
 
 import scala.annotation.internal.sharable
+import java.util.concurrent.atomic.AtomicInteger
 
 object Names {
   import NameKinds.*
@@ -272,16 +273,22 @@ object Names {
 
   }
 
-  /** A simple name is essentially an interned string */
-  final class SimpleName(val start: Int, val length: Int) extends TermName {
+  /** A simple name is essentially an interned string.
+   *  @param start   a number identifying the name, unique among all simple names
+   *  @param length  the number of characters of the name
+   *  @param chars   the chunk of the name table holding the characters of the name
+   *  @param offset  the index of the first character of the name in `chars`
+   */
+  final class SimpleName private[Names] (val start: Int, val length: Int,
+      private[dotty] val chars: Array[Char], private[dotty] val offset: Int) extends TermName {
 
   /** The n'th character */
-    def apply(n: Int): Char = chrs(start + n)
+    def apply(n: Int): Char = chars(offset + n)
 
     /** A character in this name satisfies predicate `p` */
     def exists(p: Char => Boolean): Boolean = {
       var i = 0
-      while (i < length && !p(chrs(start + i))) i += 1
+      while (i < length && !p(chars(offset + i))) i += 1
       i < length
     }
 
@@ -291,7 +298,7 @@ object Names {
     /** The name contains given character `ch` */
     def contains(ch: Char): Boolean = {
       var i = 0
-      while (i < length && chrs(start + i) != ch) i += 1
+      while (i < length && chars(offset + i) != ch) i += 1
       i < length
     }
 
@@ -310,7 +317,7 @@ object Names {
     /** A slice of this name making up the characters between `from` and `until` (exclusive) */
     def slice(from: Int, end: Int): SimpleName = {
       assert(0 <= from && from <= end && end <= length)
-      termName(chrs, start + from, end - from)
+      termName(chars, offset + from, end - from)
     }
 
     def drop(n: Int): SimpleName = slice(n, length)
@@ -320,7 +327,7 @@ object Names {
 
     /** Same as slice, but as a string */
     def sliceToString(from: Int, end: Int): String =
-      if (end <= from) "" else new String(chrs, start + from, end - from)
+      if (end <= from) "" else new String(chars, offset + from, end - from)
 
     def head: Char = apply(0)
     def last: Char = apply(length - 1)
@@ -330,7 +337,7 @@ object Names {
      */
     def getChars(from: Int, end: Int, dst: Array[Char], dstStart: Int): Unit =
       assert(0 <= from && from <= end && end <= length)
-      Array.copy(chrs, start + from, dst, dstStart, end - from)
+      Array.copy(chars, offset + from, dst, dstStart, end - from)
 
     override def asSimpleName: SimpleName = this
     override def toSimpleName: SimpleName = this
@@ -371,7 +378,7 @@ object Names {
 
     override def replace(from: Char, to: Char): SimpleName = {
       val cs = new Array[Char](length)
-      System.arraycopy(chrs, start, cs, 0, length)
+      System.arraycopy(chars, offset, cs, 0, length)
       for (i <- 0 until length)
         if (cs(i) == from) cs(i) = to
       termName(cs, 0, length)
@@ -395,7 +402,7 @@ object Names {
             Thread.dumpStack()
             assert(false)
           }
-        new String(chrs, start, length)
+        new String(chars, offset, length)
       }
 
     /** It's OK to take a toString if the stacktrace does not contain a method
@@ -516,40 +523,64 @@ object Names {
   }
 
   /** The term name represented by the empty string */
-  val EmptyTermName: SimpleName = SimpleName(-1, 0)
+  val EmptyTermName: SimpleName = SimpleName(-1, 0, Array.emptyCharArray, 0)
 
   // Nametable
 
-  inline val InitialNameSize = 0x20000
-
-  /** Memory to store all names sequentially. */
-  @sharable // because it's only mutated in synchronized block of enterIfNew
-  private[dotty] var chrs: Array[Char] = new Array[Char](InitialNameSize)
+  /** The characters of names are stored sequentially in chunks of `ChunkSize` characters,
+   *  except for names longer than a chunk, which get a chunk of their own. A chunk is never
+   *  copied or resized, so that growing the name table does not need to copy the characters
+   *  of the existing names.
+   */
+  inline val ChunkBits = 14
+  inline val ChunkSize = 1 << ChunkBits
 
-  /** The number of characters filled. */
-  @sharable // because it's only mutated in synchronized block of enterIfNew
-  private var nc = 0
+  /** The number of name tables, each with its own lock and chunks */
+  inline val StripeBits = 4
+  inline val Stripes = 1 << StripeBits
 
-  /** Make sure the capacity of the character array is at least `n` */
-  private def ensureCapacity(n: Int) =
-    if n > chrs.length then
-      val newchrs = new Array[Char](chrs.length * 2)
-      chrs.copyToArray(newchrs)
-      chrs = newchrs
+  /** The number of chunks allocated so far, used to give unique numbers to names */
+  @sharable private val chunkCount = new AtomicInteger(0)
 
-  private class NameTable extends HashSet[SimpleName](initialCapacity = 0x10000, capacityMultiple = 2):
+  /** One of the `Stripes` hash tables making up the name table, holding the names whose
+   *  hash selects it. Lookups of existing names do not lock, insertions lock this table only.
+   */
+  private class NameTable extends HashSet[SimpleName](initialCapacity = 0x10000 / Stripes, capacityMultiple = 2):
     import util.Stats
 
-    override def hash(x: SimpleName) = hashValue(chrs, x.start, x.length) // needed for resize
-    override def isEqual(x: SimpleName, y: SimpleName) = ???              // not needed
+    /** The chunk new names are added to, and the number of characters filled in it */
+    private var chunk: Array[Char] = Array.emptyCharArray
+    private var chunkStart = 0
+    private var nc = ChunkSize
+
+    override def hash(x: SimpleName) = hashValue(x.chars, x.offset, x.length) // needed for resize
+    override def isEqual(x: SimpleName, y: SimpleName) = ???                  // not needed
 
-    def enterIfNew(cs: Array[Char], offset: Int, len: Int): SimpleName =
+    /** A new name with the given characters, stored in the current chunk or a new one.
+     *  Only called while holding the lock of this table.
+     */
+    private def newName(cs: Array[Char], offset: Int, len: Int): SimpleName =
+      if len > ChunkSize then
+        val chars = new Array[Char](len)
+        Array.copy(cs, offset, chars, 0, len)
+        SimpleName(chunkCount.getAndIncrement() << ChunkBits, len, chars, 0)
+      else
+        if nc + len > ChunkSize then
+          chunk = new Array[Char](ChunkSize)
+          chunkStart = chunkCount.getAndIncrement() << ChunkBits
+          nc = 0
+        Array.copy(cs, offset, chunk, nc, len)
+        val name = SimpleName(chunkStart + nc, len, chunk, nc)
+        nc += len
+        name
+
+    def enterIfNew(cs: Array[Char], offset: Int, len: Int, h: Int): SimpleName =
       Stats.record(statsItem("put"))
       val myTable = currentTable // could be outdated under parallel execution
-      var idx = hashValue(cs, offset, len) & (myTable.length - 1)
+      var idx = h & (myTable.length - 1)
       var name: SimpleName | Null = myTable(idx).asInstanceOf[SimpleName | Null]
       while name != null do
-        if name.nn.length == len && Names.equals(name.nn.start, cs, offset, len) then
+        if name.nn.length == len && Names.equals(name.nn, cs, offset, len) then
           return name.nn
         Stats.record(statsItem("miss"))
         idx = (idx + 1) & (myTable.length - 1)
@@ -560,25 +591,26 @@ object Names {
           // Our previous unsynchronized computation of the next free index is still correct.
           // This relies on the fact that table entries go from null to non-null, and then
           // stay the same. Note that we do not need the table or the entry in it to be
-          // volatile since SimpleNames are immutable, and hence safely published.
-          // The same holds for the chrs array. We might miss before the synchronized
-          // on published characters but that would make name comparison false, which
-          // means we end up in the synchronized block here, where we get the correct state.
-          name = SimpleName(nc, len)
-          ensureCapacity(nc + len)
-          Array.copy(cs, offset, chrs, nc, len)
-          nc += len
-          addEntryAt(idx, name.nn)
+          // volatile since SimpleNames are immutable, and hence safely published, together
+          // with the characters copied to their chunk before they were created.
+          addEntryAt(idx, newName(cs, offset, len))
         else
-          enterIfNew(cs, offset, len)
+          enterIfNew(cs, offset, len, h)
       }
 
-    addEntryAt(0, EmptyTermName: @unchecked)
+    def enterEmpty(): Unit = addEntryAt(0, EmptyTermName: @unchecked)
   end NameTable
 
-  /** Hashtable for finding term names quickly. */
-  @sharable // because it's only mutated in synchronized block of enterIfNew
-  private val nameTable = NameTable()
+  /** Hashtables for finding term names quickly, selected by the hash of the name. */
+  @sharable // because they are only mutated in synchronized blocks of enterIfNew
+  private val nameTables = Array.fill(Stripes)(NameTable())
+
+  nameTables(stripe(0)).enterEmpty()
+
+  /** The index of the name table of names with hash `h`, taken from the high bits of
+   *  the mixed hash, while the name tables index their entries with its low bits.
+   */
+  private def stripe(h: Int): Int = (h * 0x9E3779B9) >>> (32 - StripeBits)
 
   /** The hash of a name made of from characters cs[offset..offset+len-1].  */
   private def hashValue(cs: Array[Char], offset: Int, len: Int): Int = {
@@ -591,12 +623,12 @@ object Names {
     hash
   }
 
-  /** Is (the ASCII representation of) name at given index equal to
-   *  cs[offset..offset+len-1]?
-   */
-  private def equals(index: Int, cs: Array[Char], offset: Int, len: Int): Boolean = {
+  /** Are the characters of `name` equal to cs[offset..offset+len-1]? */
+  private def equals(name: SimpleName, cs: Array[Char], offset: Int, len: Int): Boolean = {
+    val chars = name.chars
+    val start = name.offset
     var i = 0
-    while ((i < len) && (chrs(index + i) == cs(offset + i)))
+    while ((i < len) && (chars(start + i) == cs(offset + i)))
       i += 1
     i == len
   }
@@ -605,7 +637,8 @@ object Names {
    *  Assume they are already encoded.
    */
   def termName(cs: Array[Char], offset: Int, len: Int): SimpleName =
-    nameTable.enterIfNew(cs, offset, len)
+    val h = hashValue(cs, offset, len)
+    nameTables(stripe(h)).enterIfNew(cs, offset, len, h)
 
   /** Create a type name from the characters in cs[offset..offset+len-1].
    *  Assume they are already encoded.
@@ -38,6 +38,12 @@ object Scopes {
    */
   private inline val MaxRecursions = 1000
 
+  /** The minimal size of a scope for which a name index is built, and the number of
+   *  lookups after the last change of the scope after which it is built.
+   */
+  private inline val MinIndexedScopeSize = 64
+  private inline val IndexAfterLookups = 32
+
   /** A function that optionally produces synthesized symbols with
    *  the given name in the given context. Returns `NoSymbol` if the
    *  no symbol should be synthesized for the given name.
@@ -95,24 +101,44 @@ object Scopes {
 
     /** Selects all Symbols of this Scope which satisfy a predicate. */
     def filter(p: Symbol => Boolean)(using Context): List[Symbol] = {
-      ensureComplete()
       var syms: List[Symbol] = Nil
-      var e = lastEntry
-      while ((e != null) && e.owner == this) {
+      foreachEntry { e =>
         val sym = e.sym
         if (p(sym)) syms = sym :: syms
-        e = e.prev
       }
       syms
     }
 
     /** Tests whether a predicate holds for at least one Symbol of this Scope. */
-    def exists(p: Symbol => Boolean)(using Context): Boolean = filter(p).nonEmpty
+    def exists(p: Symbol => Boolean)(using Context): Boolean = {
+      ensureComplete()
+      var e = lastEntry
+      while ((e != null) && e.owner == this) {
+        if (p(e.sym)) return true
+        e = e.prev
+      }
+      false
+    }
 
     /** Finds the first Symbol of this Scope satisfying a predicate, if any. */
-    def find(p: Symbol => Boolean)(using Context): Symbol = filter(p) match {
-      case sym :: _ => sym
-      case _ => NoSymbol
+    def find(p: Symbol => Boolean)(using Context): Symbol = {
+      var found: Symbol = NoSymbol
+      foreachEntry { e =>
+        if (p(e.sym)) found = e.sym
+      }
+      found
+    }
+
+    /** Applies `op` to all entries of this scope, excluding those of inherited scopes,
+     *  from the last entered one to the first one, without allocating.
+     */
+    final inline def foreachEntry(inline op: ScopeEntry => Unit)(using Context): Unit = {
+      ensureComplete()
+      var e = lastEntry
+      while ((e != null) && e.owner == this) {
+        op(e)
+        e = e.prev
+      }
     }
 
     /** Returns a new mutable scope with the same content as this one. */
@@ -229,6 +255,16 @@ object Scopes {
      */
     private var elemsCache: List[Symbol] | Null = null
 
+    /** An open addressing table from each name in this scope to the last entry entered
+     *  with that name, with each name followed by its entry. Built for large scopes that
+     *  are looked up repeatedly without changing, such as the declarations of a completed
+     *  class, and dropped when the scope changes.
+     */
+    private var nameIndex: Array[AnyRef | Null] | Null = null
+
+    /** The number of lookups since the scope last changed, up to `IndexAfterLookups` */
+    private var lookupsSinceChange = 0
+
     /** The synthesizer to be used, or `null` if no synthesis is done on this scope */
     private var synthesize: SymbolSynthesizer | Null = null
 
@@ -264,9 +300,47 @@ object Scopes {
       if (hashTable != null) enterInHash(e)
       size += 1
       elemsCache = null
+      dropIndex()
       e
     }
 
+    private def dropIndex(): Unit =
+      nameIndex = null
+      lookupsSinceChange = 0
+
+    private def indexSlot(name: Name, mask: Int): Int =
+      val h = name.hashCode * 0x9E3779B9
+      (h ^ (h >>> 16)) & mask
+
+    private def createIndex(): Unit = {
+      var capacity = 4
+      while (capacity < size * 2) capacity *= 2
+      val index = new Array[AnyRef | Null](capacity * 2)
+      val mask = capacity - 1
+      var e = lastEntry
+      while (e != null) {
+        var i = indexSlot(e.name, mask)
+        while ((index(i * 2) != null) && (index(i * 2) ne e.name)) i = (i + 1) & mask
+        if (index(i * 2) == null) {
+          index(i * 2) = e.name
+          index(i * 2 + 1) = e
+        }
+        e = e.prev
+      }
+      nameIndex = index
+    }
+
+    private def lookupIndex(index: Array[AnyRef | Null], name: Name): ScopeEntry | Null = {
+      val mask = (index.length >> 1) - 1
+      var i = indexSlot(name, mask)
+      var n = index(i * 2)
+      while ((n != null) && (n ne name)) {
+        i = (i + 1) & mask
+        n = index(i * 2)
+      }
+      if (n == null) null else index(i * 2 + 1).asInstanceOf[ScopeEntry]
+    }
+
     private def enterInHash(e: ScopeEntry)(using Context): Unit = {
       val idx = e.name.hashCode & (hashTable.nn.length - 1)
       e.tail = hashTable.nn(idx)
@@ -340,6 +414,7 @@ object Scopes {
         }
       }
       elemsCache = null
+      dropIndex()
       size -= 1
     }
 
@@ -373,7 +448,14 @@ object Scopes {
      */
     override def lookupEntry(name: Name)(using Context): ScopeEntry | Null = {
       var e: ScopeEntry | Null = null
-      if (hashTable != null) {
+      val index = nameIndex
+      if (index != null)
+        e = lookupIndex(index, name)
+      else if (hashTable != null) {
+        if (size >= MinIndexedScopeSize) {
+          lookupsSinceChange += 1
+          if (lookupsSinceChange == IndexAfterLookups) createIndex()
+        }
         e = hashTable.nn(name.hashCode & (hashTable.nn.length - 1))
         while ((e != null) && e.name != name)
           e = e.tail
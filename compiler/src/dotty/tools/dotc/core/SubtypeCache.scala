@@ -0,0 +1,79 @@
+package dotty.tools.dotc
+package core
+
+import Types.*, Symbols.*
+
+/** A bounded cache of the results of subtype checks between ground types.
+ *  Each check is entered in one slot of a direct-mapped table, replacing the
+ *  check that was there. A result is only valid in the period, the mode and the
+ *  enclosing opaque scope (see `TypeComparer.liftToThis`) it was computed in.
+ *
+ *  @param capacity  the number of slots, rounded up to a power of two
+ */
+final class SubtypeCache(capacity: Int) {
+  private val size = Integer.highestOneBit((capacity max 2) * 2 - 1)
+  private val lefts = new Array[Type | Null](size)
+  private val rights = new Array[Type | Null](size)
+  private val contexts = new Array[Long](size)
+  private val scopes = new Array[Symbol | Null](size)
+  private val results = new Array[Boolean](size)
+
+  /** Statistics: the number of lookups that found a result, did not, and the
+   *  number of results entered.
+   */
+  var hits: Long = 0L
+  var misses: Long = 0L
+  var stores: Long = 0L
+
+  private def index(tp1: Type, tp2: Type): Int =
+    val h = (System.identityHashCode(tp1) * 31 + System.identityHashCode(tp2)) * 0x9E3779B9
+    (h ^ (h >>> 16)) & (size - 1)
+
+  /** `SubtypeCache.Yes` or `SubtypeCache.No` if the result of `tp1 <:< tp2` is known
+   *  in the given context, `SubtypeCache.Unknown` otherwise.
+   */
+  def lookup(tp1: Type, tp2: Type, context: Long, scope: Symbol): Int =
+    val idx = index(tp1, tp2)
+    if (lefts(idx) eq tp1) && (rights(idx) eq tp2) && contexts(idx) == context && (scopes(idx) eq scope) then
+      hits += 1
+      if results(idx) then SubtypeCache.Yes else SubtypeCache.No
+    else
+      misses += 1
+      SubtypeCache.Unknown
+
+  def enter(tp1: Type, tp2: Type, context: Long, scope: Symbol, result: Boolean): Unit =
+    val idx = index(tp1, tp2)
+    lefts(idx) = tp1
+    rights(idx) = tp2
+    contexts(idx) = context
+    scopes(idx) = scope
+    results(idx) = result
+    stores += 1
+
+  def hitRate: Double =
+    if hits + misses == 0 then 0.0 else hits.toDouble / (hits + misses)
+
+  override def toString: String =
+    f"subtype cache: $hits hits, $misses misses ($hitRate%.2f hit rate), $stores stores, $size slots"
+}
+
+object SubtypeCache {
+  inline val Unknown = -1
+  inline val No = 0
+  inline val Yes = 1
+
+  /** Is `tp` made only of named types, this types, constants, applied types, unions,
+   *  intersections, refinements and bounds? This excludes type parameters and type
+   *  variables, whose meaning depends on the constraint, as well as lambdas and other
+   *  binders, types with annotations such as capture sets, and prototypes.
+   */
+  def isCacheable(tp: Type): Boolean = tp match
+    case tp: NamedType => isCacheable(tp.prefix)
+    case _: ThisType | _: ConstantType => true
+    case NoPrefix => true
+    case tp: AppliedType => isCacheable(tp.tycon) && tp.args.forall(isCacheable)
+    case tp: AndOrType => isCacheable(tp.tp1) && isCacheable(tp.tp2)
+    case tp: RefinedType => isCacheable(tp.parent) && isCacheable(tp.refinedInfo)
+    case tp: TypeBounds => isCacheable(tp.lo) && isCacheable(tp.hi)
+    case _ => false
+}
@@ -0,0 +1,28 @@
+package dotty.tools.dotc
+package core
+
+import Contexts.*
+import config.Printers.{default, subtyping}
+
+/** The subtype cache of a run, created on first use if `-Ysubtype-cache-size` is positive */
+trait SubtypeCacheRunInfo { self: Run =>
+  private var mySubtypeCache: SubtypeCache | Null = null
+  private var subtypeCacheInitialized = false
+
+  def subtypeCache(using Context): SubtypeCache | Null =
+    if !subtypeCacheInitialized then
+      val size = ctx.settings.YsubtypeCacheSize.value
+      if size > 0 then mySubtypeCache = SubtypeCache(size)
+      subtypeCacheInitialized = true
+    mySubtypeCache
+
+  def printSubtypeCacheStats()(using Context): Unit =
+    val cache = mySubtypeCache
+    if cache != null then
+      val printer = if ctx.settings.YdetailedStats.value then default else subtyping
+      printer.println(cache.toString)
+
+  protected def reset(): Unit =
+    mySubtypeCache = null
+    subtypeCacheInitialized = false
+}
@@ -1866,6 +1866,15 @@ object SymDenotations {
     private var myMemberCache: EqHashMap[Name, PreDenotation] | Null = null
     private var myMemberCachePeriod: Period = Nowhere
 
+    /** A cache for `nonPrivateMembersNamed`, valid in the same period as `memberCache` */
+    private var myNonPrivateMemberCache: EqHashMap[Name, PreDenotation] | Null = null
+
+    /** The subclasses whose member caches hold members inherited through `nonPrivateMembersNamed`
+     *  of this class in the current period. Like the dependents of an `InheritedCache`, they forget
+     *  a name when it is entered in, replaced in or deleted from this class or one of its own base classes.
+     */
+    private var myMemberCacheDependents: WeakHashMap[ClassDenotation, Unit] | Null = null
+
     /** A cache from types T to baseType(T, C) */
     type BaseTypeMap = EqHashMap[CachedType, Type]
     private var myBaseTypeCache: BaseTypeMap | Null = null
@@ -1877,11 +1886,33 @@ object SymDenotations {
     private def memberCache(using Context): EqHashMap[Name, PreDenotation] = {
       if (myMemberCachePeriod != ctx.period) {
         myMemberCache = EqHashMap()
+        myNonPrivateMemberCache = null
+        myMemberCacheDependents = null
         myMemberCachePeriod = ctx.period
       }
       myMemberCache.nn
     }
 
+    private def nonPrivateMemberCache(using Context): EqHashMap[Name, PreDenotation] = {
+      memberCache
+      if (myNonPrivateMemberCache == null) myNonPrivateMemberCache = EqHashMap()
+      myNonPrivateMemberCache.nn
+    }
+
+    private def removeFromMemberCaches(name: Name): Unit =
+      if myMemberCache != null then myMemberCache.uncheckedNN.remove(name)
+      if myNonPrivateMemberCache != null then myNonPrivateMemberCache.uncheckedNN.remove(name)
+      val dependents = myMemberCacheDependents
+      if dependents != null then
+        myMemberCacheDependents = null // in case of cyclic inheritance
+        val it = dependents.keySet.iterator()
+        while it.hasNext() do it.next().removeFromMemberCaches(name)
+        myMemberCacheDependents = dependents
+
+    private def addMemberCacheDependent(dep: ClassDenotation): Unit =
+      if myMemberCacheDependents == null then myMemberCacheDependents = new WeakHashMap
+      myMemberCacheDependents.nn.put(dep, ())
+
     private def baseTypeCache(using Context): BaseTypeMap = {
       if !currentHasSameBaseTypesAs(myBaseTypeCachePeriod) then
         myBaseTypeCache = new BaseTypeMap()
@@ -1907,14 +1938,18 @@ object SymDenotations {
     def invalidateMemberCaches()(using Context): Unit =
       myMemberCachePeriod = Nowhere
       invalidateMemberNamesCache()
+      val dependents = myMemberCacheDependents
+      myMemberCacheDependents = null
+      if dependents != null then
+        val it = dependents.keySet.iterator()
+        while it.hasNext() do it.next().invalidateMemberCaches()
 
     def invalidateMemberCachesFor(sym: Symbol)(using Context): Unit =
-      if myMemberCache != null then myMemberCache.uncheckedNN.remove(sym.name)
+      removeFromMemberCaches(sym.name)
       if !sym.flagsUNSAFE.is(Private) then
         invalidateMemberNamesCache()
         if sym.isWrappedToplevelDef then
-          val outerCache = sym.owner.owner.asClass.classDenot.myMemberCache
-          if outerCache != null then outerCache.remove(sym.name)
+          sym.owner.owner.asClass.classDenot.removeFromMemberCaches(sym.name)
 
     override def copyCaches(from: SymDenotation, phase: Phase)(using Context): this.type = {
       from match {
@@ -2139,7 +2174,7 @@ object SymDenotations {
      */
     def replace(prev: Symbol, replacement: Symbol)(using Context): Unit = {
       unforcedDecls.openForMutations.replace(prev, replacement)
-      if (myMemberCache != null) myMemberCache.uncheckedNN.remove(replacement.name)
+      removeFromMemberCaches(replacement.name)
     }
 
     /** Delete symbol from current scope.
@@ -2150,7 +2185,7 @@ object SymDenotations {
       val scope = info.decls.openForMutations
       scope.unlink(sym, sym.name)
       if sym.name != sym.originalName then scope.unlink(sym, sym.originalName)
-      if (myMemberCache != null) myMemberCache.uncheckedNN.remove(sym.name)
+      removeFromMemberCaches(sym.name)
       if (!sym.flagsUNSAFE.is(Private)) invalidateMemberNamesCache()
     }
 
@@ -2191,7 +2226,13 @@ object SymDenotations {
      *  The elements of the returned pre-denotation all have existing symbols.
      */
     final def nonPrivateMembersNamed(name: Name)(using Context): PreDenotation =
-      membersNamedNoShadowingBasedOnFlags(name, excluded = Private)
+      if Config.cacheMembersNamed then
+        var denots: PreDenotation | Null = nonPrivateMemberCache.lookup(name)
+        if denots == null then
+          denots = membersNamedNoShadowingBasedOnFlags(name, excluded = Private)
+          nonPrivateMemberCache(name) = denots
+        denots
+      else membersNamedNoShadowingBasedOnFlags(name, excluded = Private)
 
     /** All members of this class that have the given name and match the
      *  `required` and `excluded` flag sets; members excluded based on the
@@ -2220,7 +2261,12 @@ object SymDenotations {
           val denots1 = collect(denots, ps)
           p.classSymbol.denot match
             case parentd: ClassDenotation =>
-              val inherited = parentd.membersNamedNoShadowingBasedOnFlags(name, required, excluded | Private)
+              val inherited =
+                if required == EmptyFlags && (excluded | Private) == Private then
+                  val denots = parentd.nonPrivateMembersNamed(name)
+                  if Config.cacheMembersNamed then parentd.addMemberCacheDependent(this)
+                  denots
+                else parentd.membersNamedNoShadowingBasedOnFlags(name, required, excluded | Private)
               denots1.union(inherited.mapInherited(ownDenots, denots1, thisType))
             case _ =>
               denots1
@@ -8,7 +8,7 @@ import java.nio.channels.ClosedByInterruptException
 import scala.util.control.NonFatal
 
 import dotty.tools.dotc.classpath.{ ClassPathFactory, PackageNameUtils }
-import dotty.tools.dotc.classpath.FileUtils.{hasTastyExtension, hasBetastyExtension}
+import dotty.tools.dotc.classpath.FileUtils.{hasTastyExtension, hasBetastyExtension, isScalaBinary}
 import dotty.tools.io.{ ClassPath, ClassRepresentation, AbstractFile, NoAbstractFile }
 import dotty.tools.backend.jvm.DottyBackendInterface.symExtensions
 
@@ -269,7 +269,7 @@ object SymbolLoaders {
 
     private[core] val currentDecls: MutableScope = new PackageScope()
 
-    private def isFlatName(name: SimpleName): Boolean = {
+    private[SymbolLoaders] def isFlatName(name: SimpleName): Boolean = {
       val idx = name.lastIndexOf('$', name.length - 2)
       idx >= 0 &&
       (idx + str.TOPLEVEL_SUFFIX.length + 1 != name.length || !name.endsWith(str.TOPLEVEL_SUFFIX))
@@ -370,6 +370,67 @@ object SymbolLoaders {
           enterPackage(packageClass, subPackageName, (module, modcls) => new PackageLoader(module, fullClasspath))
         mergeNewEntries(subPackage.asSymDenotation.moduleClass.asClass, p.name, jarClasspath, fullClasspath)
   end mergeNewEntries
+
+  /** Bring the toplevel symbols of the packages loaded so far in sync with the class files in `directory`,
+   *  when the symbol table of earlier runs is kept for a new run writing to the same `directory`
+   *  (as done by the `CompilerContextPool` of the sbt bridge).
+   *
+   *  Between two such runs, the sources compiled by the earlier runs may have changed, and the class files
+   *  in `directory` may have been rewritten or deleted. The toplevel classes and modules defined from
+   *  sources or loaded from `directory` are therefore unlinked, and the classes now in `directory` are
+   *  entered in their place, unless a class of the same name was loaded from another classpath entry.
+   *  Packages that were not completed yet need nothing: they list `directory` when they are.
+   */
+  def refreshClassDirectory(directory: AbstractFile)(using Context): Unit =
+    val directoryPath = directory.jpath.nn.toAbsolutePath.nn.normalize.nn
+    val directoryClassPath = ClassPathFactory.newClassPath(directory)
+
+    def isFromSourceOrDirectory(sym: Symbol): Boolean =
+      val cls = if sym.isClass then sym else sym.lastKnownDenotation.moduleClass
+      val file = if cls.isClass then cls.associatedFile else null
+      file != null && {
+        val path = file.underlyingSource.getOrElse(file).jpath
+        !file.isScalaBinary || path != null && path.toAbsolutePath.nn.normalize.nn.startsWith(directoryPath)
+      }
+
+    def refresh(pkg: ClassDenotation): Unit =
+      val decls = pkg.unforcedDecls
+      var stale: List[Symbol] = Nil
+      var subPackages: List[ClassDenotation] = Nil
+      // not `decls.toList`, which would enter the flat classes of the whole classpath
+      var e = decls.lastEntry
+      while e != null && e.owner == decls do
+        val sym = e.sym
+        if sym.lastKnownDenotation.is(Package) then
+          if sym.isTerm then
+            val pkgClass = sym.lastKnownDenotation.moduleClass.denot
+            if pkgClass.isCompleted then subPackages = pkgClass.asClass :: subPackages
+        else if isFromSourceOrDirectory(sym) then stale = sym :: stale
+        e = e.prev
+      val loader = new PackageLoader(pkg.sourceModule.asTerm, directoryClassPath)
+      val staleFlat = stale.exists(sym => sym.isClass && loader.isFlatName(sym.lastKnownDenotation.name.mangled.toSimpleName))
+      stale.foreach(pkg.delete)
+
+      val packageName = if pkg.isEffectiveRoot then "" else pkg.symbol.javaClassName
+      if !pkg.isRoot then
+        def isAbsent(classRep: ClassRepresentation) =
+          !decls.lookup(classRep.name.toTypeName).exists
+        val classReps = directoryClassPath.classes(packageName)
+          .filter(classRep => staleFlat || !loader.hasFlatName(classRep))
+        for classRep <- classReps if !loader.maybeModuleClass(classRep) && isAbsent(classRep) do
+          initializeFromClassPath(pkg.symbol, classRep)
+        for classRep <- classReps if loader.maybeModuleClass(classRep) && isAbsent(classRep) do
+          initializeFromClassPath(pkg.symbol, classRep)
+      if !pkg.isEmptyPackage then
+        for p <- directoryClassPath.packages(packageName) do
+          val subPackageName = PackageNameUtils.separatePkgAndClassNames(p.name)._2.toTermName
+          if !decls.lookup(subPackageName).exists then
+            enterPackage(pkg.symbol, subPackageName, (module, modcls) => new PackageLoader(module, ctx.platform.classPath))
+      subPackages.foreach(refresh)
+    end refresh
+
+    refresh(defn.RootClass.classDenot)
+  end refreshClassDirectory
 }
 
 /** A lazy type that completes itself by calling parameter doComplete.
@@ -215,7 +215,11 @@ class TypeComparer(@constructorOnly initctx: Context) extends ConstraintHandling
     comparedTypeLambdas += tl2
     try op finally comparedTypeLambdas = saved
 
-  protected def isSubType(tp1: Type, tp2: Type, a: ApproxState): Boolean = {
+  protected def isSubType(tp1: Type, tp2: Type, a: ApproxState): Boolean =
+    if a == ApproxState.Fresh && canCacheSubType(tp1, tp2) then cachedIsSubType(tp1, tp2)
+    else uncachedIsSubType(tp1, tp2, a)
+
+  private def uncachedIsSubType(tp1: Type, tp2: Type, a: ApproxState): Boolean = {
     val savedApprox = approx
     val savedLeftRoot = leftRoot
     if (a == ApproxState.Fresh) {
@@ -235,6 +239,57 @@ class TypeComparer(@constructorOnly initctx: Context) extends ConstraintHandling
 
   def isSubType(tp1: Type, tp2: Type): Boolean = isSubType(tp1, tp2, ApproxState.Fresh)
 
+  /** Can the result of `tp1 <:< tp2` be taken from, or entered in, the subtype cache of the run?
+   *  This is the case for checks between ground types where one of them is an applied
+   *  type, a union or an intersection, so that the check is not trivial, and that do not
+   *  depend on the state of this comparer, GADT bounds, or capture sets. Checks made while
+   *  deep recursions are monitored are excluded, since they can fail provisionally when
+   *  a pending check is cut off as a cycle.
+   */
+  protected def canCacheSubType(tp1: Type, tp2: Type): Boolean =
+    def isCompound(tp: Type) = tp.isInstanceOf[AppliedType | AndOrType]
+    (isCompound(tp1) || isCompound(tp2))
+    && !monitored
+    && ctx.run != null && ctx.run.nn.subtypeCache != null
+    && !caseLambda.exists && canWidenAbstract && !homogenizeArgs
+    && ctx.gadt.isEmpty
+    && !isCaptureCheckingOrSetup
+    && ctx.property(ComparingJavaMethods).isEmpty
+    && SubtypeCache.isCacheable(tp1) && SubtypeCache.isCacheable(tp2)
+    && !tp1.isProvisional && !tp2.isProvisional
+
+  /** `tp1 <:< tp2`, using the subtype cache of the run. The result is only entered in
+   *  the cache if the check did not use opaque or GADT bounds, nor changed the constraint,
+   *  and if no deep recursion started to be monitored while it ran.
+   */
+  private def cachedIsSubType(tp1: Type, tp2: Type): Boolean =
+    val cache = ctx.run.nn.subtypeCache.nn
+    val context = (ctx.period.code.toLong << 32) | (ctx.mode.bits & 0xFFFFFFFFL)
+    val scope = enclosingOpaqueScope
+    val known = cache.lookup(tp1, tp2, context, scope)
+    if known != SubtypeCache.Unknown then known == SubtypeCache.Yes
+    else
+      val savedGADTused = GADTused
+      val savedOpaquesUsed = opaquesUsed
+      val savedCstr = constraint
+      val savedLogSize = undoLog.size
+      GADTused = false
+      opaquesUsed = false
+      val result = uncachedIsSubType(tp1, tp2, ApproxState.Fresh)
+      if !GADTused && !opaquesUsed && !monitored && (constraint eq savedCstr) && undoLog.size == savedLogSize then
+        cache.enter(tp1, tp2, context, scope, result)
+      GADTused ||= savedGADTused
+      opaquesUsed ||= savedOpaquesUsed
+      result
+
+  /** The innermost owner defining opaque types, up to the enclosing package, which
+   *  determines how `liftToThis` lifts references to opaque types.
+   */
+  private def enclosingOpaqueScope: Symbol =
+    var owner = ctx.owner
+    while owner.exists && !owner.is(Opaque) && !owner.is(Package) do owner = owner.owner
+    if owner.exists && owner.is(Opaque) then owner else NoSymbol
+
   override protected def isSub(tp1: Type, tp2: Type)(using Context): Boolean = isSubType(tp1, tp2)
 
   /** The inner loop of the isSubType comparison.
@@ -4002,6 +4057,9 @@ class ExplainingTypeComparer(initctx: Context, short: Boolean) extends TypeCompa
   private val b = new StringBuilder
   private var lastForwardGoal: String | Null = null
 
+  /** Explanations show all steps of a subtype check, so they do not use the subtype cache */
+  override protected def canCacheSubType(tp1: Type, tp2: Type): Boolean = false
+
   private def appendFailure(notes: List[Note]) =
     if lastForwardGoal != null then  // last was deepest goal that failed
       b.append(s"  = false")
@@ -5,14 +5,30 @@ import Types.*, Contexts.*, util.Stats.*, Hashable.*, Names.*
 import config.Config
 import Symbols.Symbol
 import Decorators.*
-import util.{WeakHashSet, Stats}
-import WeakHashSet.Entry
-import scala.annotation.tailrec
+import util.{HashSet, Stats}
 
-class Uniques extends WeakHashSet[Type](Config.initialUniquesCapacity):
-  override def hash(x: Type): Int = x.hash
+/** A hash-consing table of types. Entries are strongly referenced and kept until the
+ *  end of the run. `newRun` then drops them all, making the table large enough for as
+ *  many types as the run that ended, so that similar runs do not grow it again.
+ *  Hits and new entries are recorded in `util.Stats`.
+ */
+abstract class UniquesTable[T <: Type](initialCapacity: Int) extends HashSet[T](initialCapacity, capacityMultiple = 2):
+  override def hash(x: T): Int = x.hash
+
+  protected inline def recordHit(): Unit = Stats.record(statsItem("hit"))
+  protected inline def recordNew(): Unit = Stats.record(statsItem("new"))
+
+  /** Drop all entries at the end of a run */
+  def newRun(): Unit = clearFor(size)
+
+class Uniques extends UniquesTable[Type](Config.initialUniquesCapacity):
   override def isEqual(x: Type, y: Type) = x.eql(y)
 
+  override def put(x: Type): Type =
+    val e = super.put(x)
+    if e eq x then recordNew() else recordHit()
+    e
+
 /** Defines operation `unique` for hash-consing types.
  *  Also defines specialized hash sets for hash consing uniques of a specific type.
  *  All sets offer a `enterIfNew` method which checks whether a type
@@ -35,8 +51,9 @@ object Uniques:
     if tp.hash == NotCached then tp
     else ctx.uniques.put(tp).asInstanceOf[T]
 
-  final class NamedTypeUniques extends WeakHashSet[NamedType](Config.initialUniquesCapacity * 4) with Hashable:
-    override def hash(x: NamedType): Int = x.hash
+  final class NamedTypeUniques extends UniquesTable[NamedType](Config.initialUniquesCapacity * 4) with Hashable:
+    override def isEqual(x: NamedType, y: NamedType) =
+      (x.prefix eq y.prefix) && (x.designator eq y.designator) && (x.isTerm == y.isTerm)
 
     def enterIfNew(prefix: Type, designator: Designator, isTerm: Boolean)(using Context): NamedType =
       val h = doHash(null, designator, prefix)
@@ -48,21 +65,18 @@ object Uniques:
         catch case ex: InvalidPrefix => badPrefix(prefix, designator)
       if h == NotCached then newType
       else
-        // Inlined from WeakHashSet#put
+        // Inlined from HashSet#put
         Stats.record(statsItem("put"))
-        removeStaleEntries()
-        val bucket = index(h)
-        val oldHead = table(bucket)
-
-        @tailrec
-        def linkedListLoop(entry: Entry[NamedType] | Null): NamedType = entry match
-          case null                    => addEntryAt(bucket, newType, h, oldHead)
-          case _                       =>
-            val e = entry.get
-            if e != null && (e.prefix eq prefix) && (e.designator eq designator) && (e.isTerm == isTerm) then e
-            else linkedListLoop(entry.tail)
-
-        linkedListLoop(oldHead)
+        var idx = index(h)
+        var e = entryAt(idx)
+        while e != null do
+          if (e.prefix eq prefix) && (e.designator eq designator) && (e.isTerm == isTerm) then
+            recordHit()
+            return e
+          idx = nextIndex(idx)
+          e = entryAt(idx)
+        recordNew()
+        addEntryAt(idx, newType)
       end if
     end enterIfNew
 
@@ -74,8 +88,9 @@ object Uniques:
 
   end NamedTypeUniques
 
-  final class AppliedUniques extends WeakHashSet[AppliedType](Config.initialUniquesCapacity * 2) with Hashable:
-    override def hash(x: AppliedType): Int = x.hash
+  final class AppliedUniques extends UniquesTable[AppliedType](Config.initialUniquesCapacity * 2) with Hashable:
+    override def isEqual(x: AppliedType, y: AppliedType) =
+      (x.tycon eq y.tycon) && x.args.eqElements(y.args)
 
     def enterIfNew(tycon: Type, args: List[Type]): AppliedType =
       val h = doHash(null, tycon, args)
@@ -83,21 +98,18 @@ object Uniques:
       if monitored then recordCaching(h, classOf[CachedAppliedType])
       if h == NotCached then newType
       else
-        // Inlined from WeakHashSet#put
+        // Inlined from HashSet#put
         Stats.record(statsItem("put"))
-        removeStaleEntries()
-        val bucket = index(h)
-        val oldHead = table(bucket)
-
-        @tailrec
-        def linkedListLoop(entry: Entry[AppliedType] | Null): AppliedType = entry match
-          case null                    => addEntryAt(bucket, newType, h, oldHead)
-          case _                       =>
-            val e = entry.get
-            if e != null && (e.tycon eq tycon) && e.args.eqElements(args) then e
-            else linkedListLoop(entry.tail)
-
-        linkedListLoop(oldHead)
+        var idx = index(h)
+        var e = entryAt(idx)
+        while e != null do
+          if (e.tycon eq tycon) && e.args.eqElements(args) then
+            recordHit()
+            return e
+          idx = nextIndex(idx)
+          e = entryAt(idx)
+        recordNew()
+        addEntryAt(idx, newType)
       end if
   end AppliedUniques
 end Uniques
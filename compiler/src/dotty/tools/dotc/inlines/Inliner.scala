@@ -1209,7 +1209,8 @@ class Inliner(val call: tpd.Tree)(using Context):
 
     val evaluatedSplice =
       inContext(quoted.MacroExpansion.context(inlinedFrom)):
-        Splicer.splice(body, splicePos, inlinedFrom.srcPos, MacroClassLoader.fromContext)
+        ctx.profiler.onMacroExpansion(inlinedFrom.symbol):
+          Splicer.splice(body, splicePos, inlinedFrom.srcPos, MacroClassLoader.fromContext)
     val inlinedNormalizer = new TreeMap {
       override def transform(tree: tpd.Tree)(using Context): tpd.Tree = tree match {
         case tree @ Inlined(_, Nil, expr) if tree.inlinedFromOuterScope && enclosingInlineds.isEmpty => transform(expr)
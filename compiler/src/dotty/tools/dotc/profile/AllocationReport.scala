@@ -0,0 +1,115 @@
+package dotty.tools.dotc.profile
+
+import scala.language.unsafeNulls
+
+import java.lang.management.ManagementFactory
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+import javax.management.ObjectName
+
+import scala.collection.mutable
+
+/** The bytes allocated by the main compiler thread, attributed to phases, to compilation units within
+ *  each phase, and to the top-level definitions being type checked, together with histograms of the
+ *  live compiler data structures taken after some phases.
+ *
+ *  Written by `RealProfiler` to the file given by `-Yprofile-allocations`.
+ */
+final class AllocationReport {
+  import AllocationReport.*
+
+  private val phases = mutable.LinkedHashMap.empty[String, Long]
+  private val units = mutable.HashMap.empty[(String, String), Long]
+  private val definitions = mutable.HashMap.empty[String, Long]
+  private val histograms = mutable.ListBuffer.empty[(String, List[HistogramEntry])]
+
+  def addPhase(phase: String, bytes: Long): Unit =
+    phases(phase) = phases.getOrElse(phase, 0L) + bytes
+
+  def addUnit(phase: String, unit: String, bytes: Long): Unit =
+    units((phase, unit)) = units.getOrElse((phase, unit), 0L) + bytes
+
+  def addDefinition(name: String, bytes: Long): Unit =
+    definitions(name) = definitions.getOrElse(name, 0L) + bytes
+
+  def addHistogram(phase: String, entries: List[HistogramEntry]): Unit =
+    histograms += ((phase, entries))
+
+  def render(top: Int): String = {
+    val sb = new StringBuilder
+    def table(title: String, rows: Iterable[(String, Long)]): Unit =
+      if rows.nonEmpty then
+        sb.append(s"$title\n")
+        for (name, bytes) <- rows.toSeq.sortBy(-_._2).take(top) do
+          sb.append(f"${bytes / MB}%12.1f MB  $name%n")
+        sb.append('\n')
+
+    table("Allocated by phase", phases)
+    val byUnit = mutable.HashMap.empty[String, Long]
+    for ((_, unit), bytes) <- units do byUnit(unit) = byUnit.getOrElse(unit, 0L) + bytes
+    table("Allocated by compilation unit", byUnit)
+    table("Allocated by compilation unit and phase", units.map { case ((phase, unit), bytes) => s"$unit [$phase]" -> bytes })
+    table("Allocated by top-level definition while type checking", definitions)
+
+    for (phase, entries) <- histograms do
+      sb.append(s"Live compiler data structures after $phase\n")
+      for (category, inCategory) <- entries.groupBy(_.category).toSeq.sortBy(-_._2.map(_.bytes).sum) do
+        sb.append(f"${inCategory.map(_.bytes).sum / MB}%12.1f MB ${inCategory.map(_.instances).sum}%12d  $category%n")
+        for entry <- inCategory.sortBy(-_.bytes).take(5) do
+          sb.append(f"${entry.bytes / MB}%16.1f MB ${entry.instances}%12d  ${entry.className}%n")
+      sb.append('\n')
+    sb.toString
+  }
+
+  def write(path: Path, top: Int = 50): Unit =
+    Files.write(path, render(top).getBytes(StandardCharsets.UTF_8))
+}
+
+object AllocationReport {
+  private final val MB = 1024.0 * 1024.0
+
+  /** The live instances of a class, and the kind of compiler data structure it is */
+  final case class HistogramEntry(className: String, instances: Long, bytes: Long) {
+    def category: String = categoryOf(className)
+  }
+
+  private val categories = List(
+    "dotty.tools.dotc.core.Types$" -> "types",
+    "dotty.tools.dotc.core.Symbols$" -> "symbols",
+    "dotty.tools.dotc.core.SymDenotations$" -> "symbols",
+    "dotty.tools.dotc.core.Denotations$" -> "denotations",
+    "dotty.tools.dotc.ast.Trees$" -> "trees",
+    "dotty.tools.dotc.ast.untpd$" -> "trees",
+    "dotty.tools.dotc.core.Names$" -> "names",
+    "dotty.tools.dotc.core.Scopes$" -> "scopes",
+    "dotty.tools.dotc.core.Contexts$" -> "contexts",
+  )
+
+  def categoryOf(className: String): String =
+    categories.collectFirst { case (prefix, category) if className.startsWith(prefix) => category }
+      .getOrElse(if className.startsWith("dotty.tools.") then "other compiler classes" else "other")
+
+  /** A histogram of the live objects of the heap, which runs a full GC first.
+   *  Empty if the JVM does not provide the `GC.class_histogram` diagnostic command.
+   */
+  def takeHistogram(): List[HistogramEntry] =
+    try {
+      val server = ManagementFactory.getPlatformMBeanServer
+      val histogram = server.invoke(new ObjectName("com.sun.management:type=DiagnosticCommand"),
+        "gcClassHistogram", Array[AnyRef](Array.empty[String]), Array(classOf[Array[String]].getName))
+      parseHistogram(histogram.toString)
+    }
+    catch { case _: Exception => Nil }
+
+  /** Parses the output of `jcmd <pid> GC.class_histogram`: a rank, the number of instances,
+   *  the size in bytes and the class name on each line.
+   */
+  def parseHistogram(text: String): List[HistogramEntry] =
+    text.linesIterator.flatMap { line =>
+      line.trim.split("\\s+") match {
+        case Array(rank, instances, bytes, className, _*) if rank.endsWith(":") =>
+          Some(HistogramEntry(className, instances.toLong, bytes.toLong))
+        case _ => None
+      }
+    }.toList
+}
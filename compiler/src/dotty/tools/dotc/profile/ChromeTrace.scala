@@ -13,11 +13,15 @@
 
 package dotty.tools.dotc.profile
 
-import java.io.Closeable
+import scala.language.unsafeNulls
+
+import java.io.{BufferedWriter, Closeable, IOException, OutputStreamWriter}
 import java.lang.management.ManagementFactory
+import java.nio.charset.StandardCharsets
 import java.nio.file.{Files, Path}
-import java.util
-import java.util.concurrent.TimeUnit
+import java.util.concurrent.{CopyOnWriteArrayList, TimeUnit}
+import java.util.concurrent.locks.LockSupport
+import java.util.zip.GZIPOutputStream
 
 import scala.collection.mutable
 
@@ -27,95 +31,155 @@ object ChromeTrace {
     final val Instant = "I"
     final val End = "E"
     final val Complete = "X"
-
     final val Counter = "C"
 
     final val AsyncStart = "b"
     final val AsyncInstant = "n"
     final val AsyncEnd = "e"
   }
+
+  /** How much of the trace is kept.
+   *
+   *  @param minDurationMicros the duration events shorter than this are dropped, together with the events nested in them
+   *  @param sampleEvery       only one in every `sampleEvery` duration events is kept, together with the events nested in it.
+   *                           The two outermost levels of events of a thread, such as the run and its phases, are always kept.
+   *  @param gzip              whether the trace is compressed
+   */
+  final case class Options(minDurationMicros: Long = 0L, sampleEvery: Int = 1, gzip: Boolean = false)
+
+  /** The number of pending events of a thread above which it waits for the serializer to catch up */
+  private final val RingSize = 1 << 13
+
+  /** The nesting depth from which duration events may be sampled out */
+  private final val SampledDepth = 2
+
+  /** An event recorded by a compiler thread, formatted later by the serializer */
+  private final class Record(val eventType: String, val cat: String, val name: String, val tid: String, val pidSuffix: String,
+                             val ts: Long, val value: Long, val colour: String, val counterName: String)
+
+  /** A duration event of a thread which has not ended yet */
+  private final class Frame(val start: Record, val dropped: Boolean) {
+    var published: Boolean = false
+  }
 }
 
 /** Allows writing a subset of captrue traces based on https://docs.google.com/document/d/1CvAClvFfyA5R-PhYUmn5OOQtYMH4h6I0nSsKchNAySU/preview#
-  * Can be visualized using https://ui.perfetto.dev/, Chrome's about://tracing (outdated) or the tooling in https://www.google.com.au/search?q=catapult+tracing&oq=catapult+tracing+&aqs=chrome..69i57.3974j0j4&sourceid=chrome&ie=UTF-8 */
-final class ChromeTrace(f: Path) extends Closeable {
-  import ChromeTrace.EventType
-  private val traceWriter = FileUtils.newAsyncBufferedWriter(f)
+  * Can be visualized using https://ui.perfetto.dev/, Chrome's about://tracing (outdated) or the tooling in https://www.google.com.au/search?q=catapult+tracing&oq=catapult+tracing+&aqs=chrome..69i57.3974j0j4&sourceid=chrome&ie=UTF-8
+  *
+  * Tracing threads only append their events to a ring buffer of their own, which a background thread drains
+  * and formats as JSON. A ring holds at most `RingSize` events: a thread filling it waits for the serializer,
+  * so memory stays bounded. The events of a thread appear in the order they were traced, those of different
+  * threads are interleaved.
+  */
+final class ChromeTrace(f: Path, options: ChromeTrace.Options = ChromeTrace.Options()) extends Closeable {
+  import ChromeTrace.*
+
+  private val traceWriter = {
+    val out = Files.newOutputStream(f)
+    new BufferedWriter(new OutputStreamWriter(if (options.gzip) new GZIPOutputStream(out, 1 << 16) else out, StandardCharsets.UTF_8), 1 << 16)
+  }
   private val context = mutable.Stack[JsonContext](TopContext)
   private val tidCache = new ThreadLocal[String]() {
     @annotation.nowarn("cat=deprecation")
     override def initialValue(): String = "%05d".format(Thread.currentThread().getId())
   }
-  objStart()
-  fld("traceEvents")
-  context.push(ValueContext)
-  arrStart()
-  traceWriter.newLine()
 
   private val pid = ManagementFactory.getRuntimeMXBean().getName().replaceAll("@.*", "")
 
+  private val filtering = options.minDurationMicros > 0 || options.sampleEvery > 1
+
+  /** The events of a tracing thread, only appended to by that thread */
+  private final class Producer {
+    val ring = new Array[Record](RingSize)
+    /** The number of events taken by the serializer */
+    @volatile var head: Long = 0L
+    /** The number of events added by the owning thread */
+    @volatile var tail: Long = 0L
+    /** The open duration events, when they are filtered */
+    val frames = mutable.ArrayBuffer.empty[Frame]
+    var sampled = 0
+
+    def add(record: Record): Unit = {
+      val t = tail
+      while (t - head == RingSize && !closing) {
+        LockSupport.unpark(serializer)
+        LockSupport.parkNanos(50 * 1000)
+      }
+      if (!closing) {
+        ring((t & (RingSize - 1)).toInt) = record
+        tail = t + 1
+      }
+    }
+
+    /** Adds the open events enclosing the event at the top of `frames` which were not added yet */
+    def publishEnclosing(): Unit =
+      for (frame <- frames if !frame.published) {
+        frame.published = true
+        add(frame.start)
+      }
+  }
+
+  private val producers = new CopyOnWriteArrayList[Producer]
+  private val producer = new ThreadLocal[Producer]() {
+    override def initialValue(): Producer = {
+      val p = new Producer
+      producers.add(p)
+      p
+    }
+  }
+
+  @volatile private var closing = false
+  @volatile private var failure: Throwable = null
+
+  private val serializer = new Thread(() => serialize(), "scalac-chrome-trace")
+  serializer.setDaemon(true)
+  serializer.start()
+
   override def close(): Unit = {
-    arrEnd()
-    objEnd()
-    context.pop()
+    closing = true
+    LockSupport.unpark(serializer)
+    serializer.join()
     tidCache.remove()
-    traceWriter.close()
+    producer.remove()
+    if (failure != null) throw new IOException("could not write trace", failure)
   }
 
   def traceDurationEvent(name: String, startNanos: Long, durationNanos: Long, tid: String = this.tid(), pidSuffix: String = ""): Unit = {
     val durationMicros = nanosToMicros(durationNanos)
-    val startMicros = nanosToMicros(startNanos)
-    objStart()
-    str("cat", "scalac")
-    str("name", name)
-    str("ph", EventType.Complete)
-    str("tid", tid)
-    writePid(pidSuffix)
-    lng("ts", startMicros)
-    lng("dur", durationMicros)
-    objEnd()
-    traceWriter.newLine()
+    if (durationMicros >= options.minDurationMicros)
+      producer.get.add(new Record(EventType.Complete, "scalac", name, tid, pidSuffix, nanosToMicros(startNanos), durationMicros, "", ""))
   }
 
-  private def writePid(pidSuffix: String) = {
-    if (pidSuffix == "")
-      str("pid", pid)
-    else
-      str2("pid", pid, "-", pidSuffix)
-  }
+  def traceCounterEvent(name: String, counterName: String, count: Long, processWide: Boolean): Unit =
+    producer.get.add(new Record(EventType.Counter, "scalac", name, tid(), if (processWide) "" else tid(), microTime(), count, "", counterName))
 
-  def traceCounterEvent(name: String, counterName: String, count: Long, processWide: Boolean): Unit = {
-    objStart()
-    str("cat", "scalac")
-    str("name", name)
-    str("ph", EventType.Counter)
-    str("tid", tid())
-    writePid(pidSuffix = if (processWide) "" else tid())
-    lng("ts", microTime())
-    fld("args")
-    objStart()
-    lng(counterName, count)
-    objEnd()
-    objEnd()
-    traceWriter.newLine()
+  def traceDurationEventStart(cat: String, name: String, colour: String = "", pidSuffix: String = tid()): Unit = {
+    val record = new Record(EventType.Start, cat, name, tid(), pidSuffix, microTime(), 0L, colour, "")
+    val p = producer.get
+    if (!filtering) p.add(record)
+    else {
+      val enclosingDropped = p.frames.nonEmpty && p.frames.last.dropped
+      val dropped = enclosingDropped || options.sampleEvery > 1 && p.frames.length >= SampledDepth && {
+        p.sampled += 1
+        p.sampled % options.sampleEvery != 0
+      }
+      p.frames += new Frame(record, dropped)
+      // without a minimal duration, the event is kept as soon as it is sampled
+      if (!dropped && options.minDurationMicros <= 0) p.publishEnclosing()
+    }
   }
 
-  def traceDurationEventStart(cat: String, name: String, colour: String = "", pidSuffix: String = tid()): Unit = traceDurationEventStartEnd(EventType.Start, cat, name, colour, pidSuffix)
-  def traceDurationEventEnd(cat: String, name: String, colour: String = "", pidSuffix: String = tid()): Unit = traceDurationEventStartEnd(EventType.End, cat, name, colour, pidSuffix)
-
-  private def traceDurationEventStartEnd(eventType: String, cat: String, name: String, colour: String, pidSuffix: String = ""): Unit = {
-    objStart()
-    str("cat", cat)
-    str("name", name)
-    str("ph", eventType)
-    writePid(pidSuffix)
-    str("tid", tid())
-    lng("ts", microTime())
-    if (colour != "") {
-      str("cname", colour)
+  def traceDurationEventEnd(cat: String, name: String, colour: String = "", pidSuffix: String = tid()): Unit = {
+    val record = new Record(EventType.End, cat, name, tid(), pidSuffix, microTime(), 0L, colour, "")
+    val p = producer.get
+    if (!filtering || p.frames.isEmpty) p.add(record)
+    else {
+      val frame = p.frames.last
+      val kept = !frame.dropped && (frame.published || record.ts - frame.start.ts >= options.minDurationMicros)
+      if (kept) p.publishEnclosing()
+      p.frames.dropRightInPlace(1)
+      if (kept) p.add(record)
     }
-    objEnd()
-    traceWriter.newLine()
   }
 
   private def tid(): String = tidCache.get()
@@ -124,6 +188,93 @@ final class ChromeTrace(f: Path) extends Closeable {
 
   private def microTime(): Long = nanosToMicros(System.nanoTime())
 
+  // Everything below runs on the serializer thread
+
+  private def serialize(): Unit =
+    try {
+      objStart()
+      fld("traceEvents")
+      context.push(ValueContext)
+      arrStart()
+      traceWriter.newLine()
+      var done = false
+      while (!done) {
+        // read the flag first, so that the last drain sees all the events added before closing
+        val last = closing
+        if (drain() == 0) {
+          if (last) done = true
+          else LockSupport.parkNanos(1000 * 1000)
+        }
+      }
+      arrEnd()
+      objEnd()
+      context.pop()
+      traceWriter.close()
+    }
+    catch {
+      case ex: Throwable =>
+        failure = ex
+        closing = true
+        try traceWriter.close() catch { case _: IOException => }
+    }
+
+  /** Writes the pending events of all threads, returns how many there were */
+  private def drain(): Int = {
+    var n = 0
+    val it = producers.iterator()
+    while (it.hasNext) {
+      val p = it.next()
+      val t = p.tail
+      var h = p.head
+      while (h < t) {
+        val i = (h & (RingSize - 1)).toInt
+        write(p.ring(i))
+        p.ring(i) = null
+        h += 1
+        n += 1
+      }
+      p.head = h
+    }
+    n
+  }
+
+  private def write(record: Record): Unit = {
+    objStart()
+    str("cat", record.cat)
+    str("name", record.name)
+    str("ph", record.eventType)
+    record.eventType match {
+      case EventType.Complete =>
+        str("tid", record.tid)
+        writePid(record.pidSuffix)
+        lng("ts", record.ts)
+        lng("dur", record.value)
+      case EventType.Counter =>
+        str("tid", record.tid)
+        writePid(record.pidSuffix)
+        lng("ts", record.ts)
+        fld("args")
+        objStart()
+        lng(record.counterName, record.value)
+        objEnd()
+      case _ =>
+        writePid(record.pidSuffix)
+        str("tid", record.tid)
+        lng("ts", record.ts)
+        if (record.colour != "") {
+          str("cname", record.colour)
+        }
+    }
+    objEnd()
+    traceWriter.newLine()
+  }
+
+  private def writePid(pidSuffix: String) = {
+    if (pidSuffix == "")
+      str("pid", pid)
+    else
+      str2("pid", pid, "-", pidSuffix)
+  }
   private sealed abstract class JsonContext
   private case class ArrayContext(var first: Boolean) extends JsonContext
   private case class ObjectContext(var first: Boolean) extends JsonContext
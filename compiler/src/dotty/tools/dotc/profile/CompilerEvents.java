@@ -0,0 +1,105 @@
+package dotty.tools.dotc.profile;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The Java Flight Recorder events emitted by the compiler when -Yprofile-jfr is set, see `JfrProfiler`.
+ *
+ * They are only recorded while a flight recording is running, for example when the compiler JVM is started
+ * with -XX:StartFlightRecording. The events of the nested operations, which can be very frequent, are only
+ * recorded above a threshold that a recording can override. `JfrReport` summarizes recordings of these events.
+ */
+final class CompilerEvents {
+    private CompilerEvents() {}
+
+    static final String Prefix = "scala.compiler.";
+
+    @Name(Prefix + "Phase")
+    @Label("Phase")
+    @Category({"Scala", "Compiler"})
+    @StackTrace(false)
+    static final class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Run Id")
+        int runId;
+    }
+
+    @Name(Prefix + "Unit")
+    @Label("Compilation Unit")
+    @Description("A phase running on a single compilation unit")
+    @Category({"Scala", "Compiler"})
+    @StackTrace(false)
+    static final class UnitEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("File")
+        String file;
+    }
+
+    @Name(Prefix + "ImplicitSearch")
+    @Label("Implicit Search")
+    @Category({"Scala", "Compiler", "Typer"})
+    @Threshold("100 us")
+    @StackTrace(false)
+    static final class ImplicitSearchEvent extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Symbol")
+        @Description("The class of the searched type")
+        String symbol;
+    }
+
+    @Name(Prefix + "Inline")
+    @Label("Inline Expansion")
+    @Category({"Scala", "Compiler", "Typer"})
+    @Threshold("100 us")
+    @StackTrace(false)
+    static final class InlineEvent extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Symbol")
+        String symbol;
+    }
+
+    @Name(Prefix + "Macro")
+    @Label("Macro Expansion")
+    @Category({"Scala", "Compiler", "Typer"})
+    @Threshold("100 us")
+    @StackTrace(false)
+    static final class MacroEvent extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Symbol")
+        String symbol;
+    }
+
+    @Name(Prefix + "Completion")
+    @Label("Symbol Completion")
+    @Description("Loading a symbol from the classpath or from source")
+    @Category({"Scala", "Compiler", "Classpath"})
+    @Threshold("100 us")
+    @StackTrace(false)
+    static final class CompletionEvent extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Symbol")
+        String symbol;
+
+        @Label("Origin")
+        @Description("The file the symbol is loaded from")
+        String origin;
+    }
+}
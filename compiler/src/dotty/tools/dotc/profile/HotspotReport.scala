@@ -0,0 +1,185 @@
+package dotty.tools.dotc.profile
+
+import scala.language.unsafeNulls
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path, Paths}
+
+import scala.collection.mutable
+import scala.jdk.CollectionConverters.*
+
+/** The time spent type checking each definition, searching implicits of each type and expanding each
+ *  inline method or macro, written by `RealProfiler` to the file given by `-Yprofile-hotspots`.
+ *
+ *  The total time of an entry includes the time of the entries nested in it, but is only counted once
+ *  for recursive occurrences; its self time excludes the nested entries. Entries are only recorded
+ *  on the thread running the phases.
+ *
+ *  Summaries written as JSON can be compared with `HotspotReport diff <before.json> <after.json>`.
+ */
+final class HotspotReport {
+  import HotspotReport.*
+
+  private final class Frame(val stat: Stat, val startNanos: Long) {
+    var nestedNanos: Long = 0L
+  }
+
+  private val stats = mutable.HashMap.empty[AnyRef, Stat]
+  private val stack = mutable.ArrayBuffer.empty[Frame]
+  private var runNanos = 0L
+
+  /** Starts an entry, `key` identifies it within `category`, typically a symbol */
+  def enter(category: String, key: AnyRef, name: => String): Unit = {
+    val stat = stats.getOrElseUpdate((category, key), new Stat(category, name))
+    stat.active += 1
+    stack += new Frame(stat, System.nanoTime())
+  }
+
+  /** Ends the last started entry */
+  def exit(): Unit = {
+    val frame = stack.remove(stack.length - 1)
+    val elapsed = System.nanoTime() - frame.startNanos
+    val stat = frame.stat
+    stat.count += 1
+    stat.selfNanos += elapsed - frame.nestedNanos
+    stat.active -= 1
+    if stat.active == 0 then stat.totalNanos += elapsed
+    if stack.nonEmpty then stack.last.nestedNanos += elapsed
+  }
+
+  def addPhaseTime(nanos: Long): Unit = runNanos += nanos
+
+  def summary: Summary = Summary(runNanos, stats.values.toList)
+
+  def write(path: Path, top: Int = 100): Unit = {
+    val content = if path.toString.endsWith(".json") then summary.toJson else summary.render(top)
+    Files.write(path, content.getBytes(StandardCharsets.UTF_8))
+  }
+}
+
+object HotspotReport {
+  final val Definition = "definition"
+  final val ImplicitSearch = "implicit search"
+  final val Inline = "inline"
+  final val Macro = "macro"
+
+  final class Stat(val category: String, val name: String) {
+    var count: Int = 0
+    var totalNanos: Long = 0L
+    var selfNanos: Long = 0L
+    private[HotspotReport] var active: Int = 0
+  }
+
+  private def ms(nanos: Long) = nanos / 1e6
+
+  final case class Summary(runNanos: Long, stats: List[Stat]) {
+    def render(top: Int): String = {
+      val sb = new StringBuilder
+      sb.append(f"Phases: ${ms(runNanos)}%.1f ms%n%n")
+      for (category, inCategory) <- stats.groupBy(_.category).toSeq.sortBy(_._1) do
+        sb.append(s"Hot spots: $category\n")
+        sb.append(f"${"self ms"}%12s ${"% run"}%6s ${"total ms"}%12s ${"count"}%8s  name%n")
+        for stat <- inCategory.sortBy(-_.selfNanos).take(top) do
+          val percent = if runNanos == 0 then 0.0 else stat.selfNanos * 100.0 / runNanos
+          sb.append(f"${ms(stat.selfNanos)}%12.1f $percent%6.1f ${ms(stat.totalNanos)}%12.1f ${stat.count}%8d  ${stat.name}%n")
+        sb.append('\n')
+      sb.toString
+    }
+
+    /** One entry per line, in the format read by `HotspotReport.read` */
+    def toJson: String = {
+      val sb = new StringBuilder
+      sb.append(s"""{"version":1,"runNanos":$runNanos,"entries":[\n""")
+      var first = true
+      for stat <- stats.sortBy(-_.selfNanos) do
+        if !first then sb.append(",\n")
+        first = false
+        sb.append(s"""{"category":"${JsonNameTransformer.encode(stat.category)}","name":"${JsonNameTransformer.encode(stat.name)}",""")
+        sb.append(s""""count":${stat.count},"totalNanos":${stat.totalNanos},"selfNanos":${stat.selfNanos}}""")
+      sb.append("\n]}\n")
+      sb.toString
+    }
+  }
+
+  private val RunLine = """\{"version":1,"runNanos":(\d+),.*""".r
+  private val EntryLine =
+    """,?\{"category":"((?:[^"\\]|\\.)*)","name":"((?:[^"\\]|\\.)*)","count":(\d+),"totalNanos":(\d+),"selfNanos":(-?\d+)\}""".r
+
+  /** Reads a summary written by `Summary.toJson` */
+  def read(path: Path): Summary = {
+    var runNanos = 0L
+    val stats = mutable.ListBuffer.empty[Stat]
+    for line <- Files.readAllLines(path, StandardCharsets.UTF_8).asScala do line match
+      case RunLine(nanos) => runNanos = nanos.toLong
+      case EntryLine(category, name, count, total, self) =>
+        val stat = new Stat(decode(category), decode(name))
+        stat.count = count.toInt
+        stat.totalNanos = total.toLong
+        stat.selfNanos = self.toLong
+        stats += stat
+      case _ =>
+    Summary(runNanos, stats.toList)
+  }
+
+  private def decode(s: String): String =
+    if s.indexOf('\\') < 0 then s
+    else {
+      val sb = new StringBuilder
+      var i = 0
+      while i < s.length do
+        val c = s(i)
+        if c == '\\' && i + 1 < s.length then
+          s(i + 1) match
+            case 'u' =>
+              sb.append(Integer.parseInt(s.substring(i + 2, i + 6), 16).toChar)
+              i += 4
+            case 'b' => sb.append('\b')
+            case 'f' => sb.append('\f')
+            case 'n' => sb.append('\n')
+            case 'r' => sb.append('\r')
+            case 't' => sb.append('\t')
+            case other => sb.append(other)
+          i += 2
+        else
+          sb.append(c)
+          i += 1
+      sb.toString
+    }
+
+  /** The entries whose self time changed the most between two summaries.
+   *
+   *  Entries are matched by category and name. Distinct entries with the same name, such as overloads,
+   *  are added up, since they cannot be told apart across two summaries.
+   */
+  def diff(before: Summary, after: Summary, top: Int): String = {
+    def selfByKey(summary: Summary): Map[(String, String), Long] =
+      summary.stats.groupMapReduce(stat => (stat.category, stat.name))(_.selfNanos)(_ + _)
+    val beforeSelf = selfByKey(before)
+    val afterSelf = selfByKey(after)
+    val changes = (beforeSelf.keySet ++ afterSelf.keySet).toSeq
+      .map(key => (key, beforeSelf.getOrElse(key, 0L), afterSelf.getOrElse(key, 0L)))
+      .sortBy { case (_, b, a) => -math.abs(a - b) }
+      .take(top)
+    val sb = new StringBuilder
+    sb.append(f"Phases: ${ms(before.runNanos)}%.1f ms -> ${ms(after.runNanos)}%.1f ms (${ms(after.runNanos - before.runNanos)}%+.1f ms)%n%n")
+    sb.append(f"${"before ms"}%12s ${"after ms"}%12s ${"delta ms"}%12s  name%n")
+    for ((category, name), b, a) <- changes do
+      sb.append(f"${ms(b)}%12.1f ${ms(a)}%12.1f ${ms(a - b)}%+12.1f  $name ($category)%n")
+    sb.toString
+  }
+
+  /** Usage: `HotspotReport [-top <n>] <summary.json>` or `HotspotReport [-top <n>] diff <before.json> <after.json>` */
+  def main(args: Array[String]): Unit = {
+    val (top, rest) = args.toList match
+      case "-top" :: n :: rest => (n.toInt, rest)
+      case rest => (50, rest)
+    rest match
+      case "diff" :: before :: after :: Nil =>
+        print(diff(read(Paths.get(before)), read(Paths.get(after)), top))
+      case summary :: Nil =>
+        print(read(Paths.get(summary)).render(top))
+      case _ =>
+        System.err.println("Usage: HotspotReport [-top <n>] <summary.json> | HotspotReport [-top <n>] diff <before.json> <after.json>")
+        sys.exit(1)
+  }
+}
@@ -0,0 +1,97 @@
+package dotty.tools.dotc.profile
+
+import scala.language.unsafeNulls
+
+import java.nio.file.{Path, Paths}
+import jdk.jfr.consumer.{RecordedEvent, RecordingFile}
+
+import scala.collection.mutable
+
+/** Summarizes the events emitted by `JfrProfiler` in one or more flight recordings:
+ *  the time spent in each phase, the compilation units taking the most time, and the
+ *  symbols whose implicit searches, inline and macro expansions or completions took
+ *  the most time. Times are inclusive: an inline expansion inside an implicit search
+ *  counts for both.
+ *
+ *  Usage: `JfrReport [-top <n>] <recording.jfr>...`
+ */
+object JfrReport {
+
+  /** The number of occurrences and the durations of some event */
+  final class Stat {
+    var count: Int = 0
+    var totalNanos: Long = 0L
+    var maxNanos: Long = 0L
+
+    def add(nanos: Long): Unit = {
+      count += 1
+      totalNanos += nanos
+      maxNanos = math.max(maxNanos, nanos)
+    }
+  }
+
+  final class Summary {
+    val phases: mutable.LinkedHashMap[String, Stat] = mutable.LinkedHashMap.empty
+    val units: mutable.HashMap[String, Stat] = mutable.HashMap.empty
+    /** The stats per symbol of each kind of nested event, by the simple name of the event */
+    val symbols: mutable.LinkedHashMap[String, mutable.HashMap[String, Stat]] =
+      mutable.LinkedHashMap(NestedEvents.map(_ -> mutable.HashMap.empty[String, Stat])*)
+
+    def add(event: RecordedEvent): Unit = {
+      val name = event.getEventType.getName
+      if name.startsWith(CompilerEvents.Prefix) then
+        val kind = name.stripPrefix(CompilerEvents.Prefix)
+        val nanos = event.getDuration.toNanos
+        kind match
+          case "Phase" => phases.getOrElseUpdate(event.getString("phase"), new Stat).add(nanos)
+          case "Unit" => units.getOrElseUpdate(event.getString("file"), new Stat).add(nanos)
+          case _ =>
+            for stats <- symbols.get(kind) do
+              stats.getOrElseUpdate(event.getString("symbol"), new Stat).add(nanos)
+    }
+
+    def render(top: Int): String = {
+      val sb = new StringBuilder
+      def table(title: String, stats: Iterable[(String, Stat)]): Unit =
+        if stats.nonEmpty then
+          sb.append(s"$title\n")
+          sb.append(f"${"total ms"}%12s ${"count"}%8s ${"max ms"}%10s  name%n")
+          for (name, stat) <- stats.toSeq.sortBy(-_._2.totalNanos).take(top) do
+            sb.append(f"${stat.totalNanos / 1e6}%12.1f ${stat.count}%8d ${stat.maxNanos / 1e6}%10.1f  $name%n")
+          sb.append('\n')
+      table("Phases", phases)
+      table("Compilation units", units)
+      for (kind, stats) <- symbols do table(s"$kind by symbol", stats)
+      sb.toString
+    }
+  }
+
+  private val NestedEvents = List("ImplicitSearch", "Inline", "Macro", "Completion")
+
+  def summarize(recordings: Seq[Path]): Summary = {
+    val summary = new Summary
+    for recording <- recordings do
+      val file = new RecordingFile(recording)
+      try
+        while file.hasMoreEvents do
+          summary.add(file.readEvent())
+      finally file.close()
+    summary
+  }
+
+  def main(args: Array[String]): Unit = {
+    var top = 20
+    val recordings = mutable.ListBuffer.empty[Path]
+    var i = 0
+    while i < args.length do
+      if args(i) == "-top" && i + 1 < args.length then
+        top = args(i + 1).toInt
+        i += 1
+      else recordings += Paths.get(args(i))
+      i += 1
+    if recordings.isEmpty then
+      System.err.println("Usage: JfrReport [-top <n>] <recording.jfr>...")
+      sys.exit(1)
+    print(summarize(recordings.toList).render(top))
+  }
+}
@@ -11,7 +11,7 @@ import javax.management.{Notification, NotificationEmitter, NotificationListener
 
 import dotty.tools.dotc.core.Phases.Phase
 import dotty.tools.dotc.core.Contexts.*
-import dotty.tools.dotc.CompilationUnit
+import dotty.tools.dotc.{CompilationUnit, report}
 import dotty.tools.dotc.core.Types.Type
 import dotty.tools.dotc.core.Symbols.{Symbol, NoSymbol}
 import dotty.tools.dotc.core.Flags
@@ -23,13 +23,16 @@ import scala.collection.mutable.UnrolledBuffer
 
 object Profiler {
   def apply()(using Context): Profiler =
-    if (!ctx.settings.YprofileEnabled.value) NoOpProfiler
-    else {
+    if (ctx.settings.YprofileEnabled.value) {
+      if (ctx.settings.YprofileJfr.value)
+        report.warning(s"${ctx.settings.YprofileJfr.name} is ignored when ${ctx.settings.YprofileEnabled.name} is set")
       val reporter = if (ctx.settings.YprofileDestination.value != "")
         new StreamProfileReporter(new PrintWriter(new FileWriter(ctx.settings.YprofileDestination.value, true)))
       else ConsoleProfileReporter
       new RealProfiler(reporter)
     }
+    else if (ctx.settings.YprofileJfr.value) new JfrProfiler
+    else NoOpProfiler
 
   final def NoOp: Profiler = NoOpProfiler
 
@@ -122,6 +125,13 @@ sealed trait Profiler {
   protected def beforeInlineCall(inlineSym: Symbol): TracedEventId = TracedEventId.Empty
   protected def afterInlineCall(event: TracedEventId): Unit = ()
 
+  inline def onMacroExpansion[T](macroSym: Symbol)(inline body: T): T =
+    val event = beforeMacroExpansion(macroSym)
+    try body
+    finally afterMacroExpansion(event)
+  protected def beforeMacroExpansion(macroSym: Symbol): TracedEventId = TracedEventId.Empty
+  protected def afterMacroExpansion(event: TracedEventId): Unit = ()
+
   inline def onCompletion[T](root: Symbol, associatedFile: => AbstractFile)(inline body: T): T =
     val (event, completionName) = beforeCompletion(root, associatedFile)
     try body
@@ -145,6 +155,14 @@ private [profile] object RealProfiler {
   if (threadMx.isThreadCpuTimeSupported) threadMx.setThreadCpuTimeEnabled(true)
   private val idGen = new AtomicInteger()
 
+  /** `filename` with `suffix` inserted before the extensions of its last path element, if any */
+  private[profile] def insertSuffix(filename: String, suffix: String): String = {
+    val nameStart = (filename.lastIndexOf('/') max filename.lastIndexOf(java.io.File.separatorChar)) + 1
+    val extStart = filename.indexOf('.', nameStart + 1) // a leading dot is not an extension
+    if (extStart < 0) filename + suffix
+    else filename.substring(0, extStart) + suffix + filename.substring(extStart)
+  }
+
   @nowarn("cat=deprecation")
   private[profile] def snapThread(idleTimeNanos: Long): ProfileSnap = {
     import RealProfiler.*
@@ -164,6 +182,10 @@ private [profile] object RealProfiler {
     )
   }
   private def readHeapUsage() = RealProfiler.memoryMx.getHeapMemoryUsage.getUsed
+
+  @nowarn("cat=deprecation")
+  private[profile] def currentAllocatedBytes(): Long =
+    threadMx.getThreadAllocatedBytes(Thread.currentThread().getId)
 }
 
 private [profile] class RealProfiler(reporter : ProfileReporter)(using Context) extends Profiler with NotificationListener {
@@ -187,8 +209,32 @@ private [profile] class RealProfiler(reporter : ProfileReporter)(using Context)
       // Alternatives: sharing ChromeTrace instance between all runs / manual concatation after all runs are done
       // FIXME: The first assigned runId is equal to 2 instead of 1 (InitialRunId).
       // Fix me when bug described in Compiler.runId is resolved by removing +/- 1 adjustments
-      val suffix = if ctx.runId > InitialRunId + 1 then s".${ctx.runId - 1}" else ""
-      ChromeTrace(Paths.get(s"$filename$suffix"))
+      val options = ChromeTrace.Options(
+        minDurationMicros = ctx.settings.YprofileTraceMinDuration.value,
+        sampleEvery = ctx.settings.YprofileTraceSample.value max 1,
+        gzip = filename.endsWith(".gz"))
+      ChromeTrace(Paths.get(withRunSuffix(filename)), options)
+
+  private[profile] val allocationReport =
+    if ctx.settings.YprofileAllocations.isDefault then null
+    else new AllocationReport
+  private[profile] val hotspots =
+    if ctx.settings.YprofileHotspots.isDefault then null
+    else new HotspotReport
+  private var unitPhase = ""
+  private var unitPath = ""
+  private var unitStartBytes = 0L
+  private var typedDefDepth = 0
+  private var topLevelDefDepth = -1
+  private var topLevelDefName = ""
+  private var topLevelDefStartBytes = 0L
+
+  /** `filename`, or for the runs after the first one, `filename` with the run number inserted before its
+   *  extensions, so that `trace.json.gz` becomes `trace.2.json.gz` and is still written as gzipped JSON.
+   */
+  private def withRunSuffix(filename: String): String =
+    if ctx.runId > InitialRunId + 1 then RealProfiler.insertSuffix(filename, s".${ctx.runId - 1}")
+    else filename
 
   private val compilerRunEvent: TracedEventId = traceDurationStart(Category.Run, s"scalac-$id")
 
@@ -226,6 +272,10 @@ private [profile] class RealProfiler(reporter : ProfileReporter)(using Context)
         chromeTrace.traceDurationEvent(gcEvent.name, startNanos, durationNanos, tid = GcThreadId)
       }
       chromeTrace.close()
+    if allocationReport != null then
+      allocationReport.write(Paths.get(withRunSuffix(ctx.settings.YprofileAllocations.value)))
+    if hotspots != null then
+      hotspots.write(Paths.get(withRunSuffix(ctx.settings.YprofileHotspots.value)))
   }
 
 
@@ -265,7 +315,14 @@ private [profile] class RealProfiler(reporter : ProfileReporter)(using Context)
     else initialSnap
     traceDurationEnd(Category.Phase, event)
     traceThreadSnapshotCounters()
-    reporter.reportForeground(this, ProfileRange(snapBefore, finalSnap, phase, "", 0, Thread.currentThread))
+    val range = ProfileRange(snapBefore, finalSnap, phase, "", 0, Thread.currentThread)
+    reporter.reportForeground(this, range)
+    if hotspots != null then
+      hotspots.addPhaseTime(range.runNs)
+    if allocationReport != null then
+      allocationReport.addPhase(phase.phaseName, range.allocatedBytes)
+      if ctx.settings.YprofileHeapHistogram.value.contains(phase.toString) then
+        allocationReport.addHistogram(phase.phaseName, AllocationReport.takeHistogram())
   }
 
   override def beforePhase(phase: Phase): (TracedEventId, ProfileSnap) = {
@@ -283,6 +340,10 @@ private [profile] class RealProfiler(reporter : ProfileReporter)(using Context)
 
   override def beforeUnit(phase: Phase, unit: CompilationUnit): TracedEventId = {
     assert(mainThread eq Thread.currentThread())
+    if allocationReport != null then
+      unitPhase = phase.phaseName
+      unitPath = unit.source.path
+      unitStartBytes = RealProfiler.currentAllocatedBytes()
     if chromeTrace != null then
       traceThreadSnapshotCounters()
       traceDurationStart(Category.File, escapeSpecialChars(unit.source.name))
@@ -291,6 +352,8 @@ private [profile] class RealProfiler(reporter : ProfileReporter)(using Context)
 
   override def afterUnit(event: TracedEventId): Unit = {
     assert(mainThread eq Thread.currentThread())
+    if allocationReport != null then
+      allocationReport.addUnit(unitPhase, unitPath, RealProfiler.currentAllocatedBytes() - unitStartBytes)
     if chromeTrace != null then
       traceDurationEnd(Category.File, event)
       traceThreadSnapshotCounters()
@@ -309,14 +372,59 @@ private [profile] class RealProfiler(reporter : ProfileReporter)(using Context)
       nextAfterUnitSnap = System.nanoTime() + 10 * 1000 * 1000
     }
 
-  override def beforeTypedDef(sym: Symbol): TracedEventId = traceDurationStart(Category.TypeCheck, symbolName(sym))
-  override def afterTypedDef(event: TracedEventId): Unit = traceDurationEnd(Category.TypeCheck, event)
+  override def beforeTypedDef(sym: Symbol): TracedEventId = {
+    if allocationReport != null then
+      typedDefDepth += 1
+      if topLevelDefDepth < 0 && sym.owner.is(Flags.Package) then
+        topLevelDefDepth = typedDefDepth
+        topLevelDefName = sym.showFullName
+        topLevelDefStartBytes = RealProfiler.currentAllocatedBytes()
+    if hotspots != null then
+      hotspots.enter(HotspotReport.Definition, sym, sym.showFullName)
+    traceDurationStart(Category.TypeCheck, symbolName(sym))
+  }
+  override def afterTypedDef(event: TracedEventId): Unit = {
+    traceDurationEnd(Category.TypeCheck, event)
+    if hotspots != null then
+      hotspots.exit()
+    if allocationReport != null then
+      if typedDefDepth == topLevelDefDepth then
+        allocationReport.addDefinition(topLevelDefName, RealProfiler.currentAllocatedBytes() - topLevelDefStartBytes)
+        topLevelDefDepth = -1
+      typedDefDepth -= 1
+  }
 
-  override def beforeImplicitSearch(pt: Type): TracedEventId = traceDurationStart(Category.Implicit, s"?[${symbolName(pt.typeSymbol)}]", colour = "yellow")
-  override def afterImplicitSearch(event: TracedEventId): Unit = traceDurationEnd(Category.Implicit, event, colour = "yellow")
+  override def beforeImplicitSearch(pt: Type): TracedEventId = {
+    if hotspots != null then
+      val cls = pt.typeSymbol
+      hotspots.enter(HotspotReport.ImplicitSearch, cls, cls.showFullName)
+    traceDurationStart(Category.Implicit, s"?[${symbolName(pt.typeSymbol)}]", colour = "yellow")
+  }
+  override def afterImplicitSearch(event: TracedEventId): Unit = {
+    traceDurationEnd(Category.Implicit, event, colour = "yellow")
+    if hotspots != null then
+      hotspots.exit()
+  }
 
-  override def beforeInlineCall(inlineSym: Symbol): TracedEventId = traceDurationStart(Category.Inline, s"«${symbolName(inlineSym)}»", colour = "olive")
-  override def afterInlineCall(event: TracedEventId): Unit = traceDurationEnd(Category.Inline, event, colour = "olive")
+  override def beforeInlineCall(inlineSym: Symbol): TracedEventId = {
+    if hotspots != null then
+      hotspots.enter(HotspotReport.Inline, inlineSym, inlineSym.showFullName)
+    traceDurationStart(Category.Inline, s"«${symbolName(inlineSym)}»", colour = "olive")
+  }
+  override def afterInlineCall(event: TracedEventId): Unit = {
+    traceDurationEnd(Category.Inline, event, colour = "olive")
+    if hotspots != null then
+      hotspots.exit()
+  }
+
+  override def beforeMacroExpansion(macroSym: Symbol): TracedEventId = {
+    if hotspots != null then
+      hotspots.enter(HotspotReport.Macro, macroSym, macroSym.showFullName)
+    TracedEventId.Empty
+  }
+  override def afterMacroExpansion(event: TracedEventId): Unit =
+    if hotspots != null then
+      hotspots.exit()
 
   override def beforeCompletion(root: Symbol, associatedFile: => AbstractFile): (TracedEventId, String) =
     if chromeTrace == null
@@ -363,6 +471,103 @@ private [profile] class RealProfiler(reporter : ProfileReporter)(using Context)
       s"${enclosing.javaBinaryName}::${root.name}"
 }
 
+/** A profiler emitting the JFR events of `CompilerEvents`, cheap enough to be always enabled.
+ *
+ *  An event is only filled in and committed if a flight recording is running and has it enabled,
+ *  otherwise a hook only allocates an event, which the JIT eliminates, to check that. The events of nested
+ *  operations are kept on a per-thread stack until they end; the implicit searches, inline and
+ *  macro expansions and completions are attributed to the compilation unit being processed.
+ */
+private [profile] class JfrProfiler(using Context) extends Profiler {
+  import CompilerEvents.*
+
+  private val runId = ctx.runId
+  @volatile private var currentFile: String = ""
+
+  private val open = ThreadLocal.withInitial(() => new java.util.ArrayDeque[jdk.jfr.Event]).nn
+
+  private final val Recorded = TracedEventId("jfr")
+
+  private def begin(event: jdk.jfr.Event): TracedEventId = {
+    event.begin()
+    open.get.nn.push(event)
+    Recorded
+  }
+
+  private def end(event: TracedEventId): Unit =
+    if event eq Recorded then open.get.nn.pop().nn.commit()
+
+  override def finished(): Unit = ()
+
+  override def beforePhase(phase: Phase): (TracedEventId, ProfileSnap) = {
+    val event = new PhaseEvent
+    if event.isEnabled then
+      event.phase = phase.phaseName
+      event.runId = runId
+      (begin(event), Profiler.emptySnap)
+    else EmptyPhaseEvent
+  }
+  override def afterPhase(event: TracedEventId, phase: Phase, profileBefore: ProfileSnap): Unit = end(event)
+
+  override def beforeUnit(phase: Phase, unit: CompilationUnit): TracedEventId = {
+    currentFile = unit.source.path
+    val event = new UnitEvent
+    if event.isEnabled then
+      event.phase = phase.phaseName
+      event.file = currentFile
+      begin(event)
+    else TracedEventId.Empty
+  }
+  override def afterUnit(event: TracedEventId): Unit = {
+    end(event)
+    currentFile = ""
+  }
+
+  override def beforeImplicitSearch(pt: Type): TracedEventId = {
+    val event = new ImplicitSearchEvent
+    if event.isEnabled then
+      event.file = currentFile
+      event.symbol = symbolName(pt.typeSymbol)
+      begin(event)
+    else TracedEventId.Empty
+  }
+  override def afterImplicitSearch(event: TracedEventId): Unit = end(event)
+
+  override def beforeInlineCall(inlineSym: Symbol): TracedEventId = {
+    val event = new InlineEvent
+    if event.isEnabled then
+      event.file = currentFile
+      event.symbol = symbolName(inlineSym)
+      begin(event)
+    else TracedEventId.Empty
+  }
+  override def afterInlineCall(event: TracedEventId): Unit = end(event)
+
+  override def beforeMacroExpansion(macroSym: Symbol): TracedEventId = {
+    val event = new MacroEvent
+    if event.isEnabled then
+      event.file = currentFile
+      event.symbol = symbolName(macroSym)
+      begin(event)
+    else TracedEventId.Empty
+  }
+  override def afterMacroExpansion(event: TracedEventId): Unit = end(event)
+
+  override def beforeCompletion(root: Symbol, associatedFile: => AbstractFile): (TracedEventId, String) = {
+    val event = new CompletionEvent
+    if event.isEnabled then
+      event.file = currentFile
+      event.symbol = symbolName(root)
+      event.origin = associatedFile.path
+      (begin(event), "")
+    else EmptyCompletionEvent
+  }
+  override def afterCompletion(event: TracedEventId, completionName: String): Unit = end(event)
+
+  private def symbolName(sym: Symbol): String =
+    if sym.exists then sym.showFullName else "<none>"
+}
+
 enum EventType(name: String):
   // main thread with other tasks
   case MAIN extends EventType("main")
@@ -12,7 +12,7 @@ import io.AbstractFile
 import printing.Highlighting.{Blue, Red, Yellow}
 import printing.SyntaxHighlighting
 import Diagnostic.*
-import util.{SourcePosition, NoSourcePosition}
+import util.{LineIndex, SourcePosition, NoSourcePosition}
 import util.Chars.{ LF, CR, FF, SU }
 import scala.annotation.switch
 
@@ -178,7 +178,10 @@ trait MessageRendering {
   /** The source file path, line and column numbers from the given SourcePosition */
   protected def posFileStr(pos: SourcePosition): String =
     val path = renderPath(pos.source.file)
-    if pos.exists then s"$path:${pos.line + 1}:${pos.column}" else path
+    if pos.exists then
+      val lc = pos.source.lineColumn(pos.point)
+      s"$path:${LineIndex.line(lc) + 1}:${LineIndex.column(lc)}"
+    else path
 
   /** The separator between errors containing the source file and error type
     *
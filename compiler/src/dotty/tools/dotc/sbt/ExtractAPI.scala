@@ -80,7 +80,10 @@ class ExtractAPI extends Phase {
     if doZincCallback then
       ctx.withIncCallback(recordNonLocalClasses(nonLocalClassSymbols, _))
     if ctx.settings.XjavaTasty.value then
-      units0.filterNot(_.typedAsJava) // remove java sources, this is the terminal phase when `-Xjava-tasty` is set
+      // remove java sources, this is the terminal phase when `-Xjava-tasty` is set
+      val (javaUnits, scalaUnits) = units0.partition(_.typedAsJava)
+      javaUnits.foreach(unitAnalysisCompleted)
+      scalaUnits
     else
       units0
   end runOn
@@ -38,6 +38,17 @@ public interface IncrementalCallback {
       String srcClassName) {
   }
 
+  /** Called once the API and the dependencies of `sourceFile` have all been reported,
+   *  before the backend runs on it. This lets the build tool start processing the analysis
+   *  of each compilation unit while the rest of the run is still in progress.
+   *
+   *  Java sources are reported when the compiler drops them from the run. Sources of a run
+   *  that stops before the `inlining` phase are not reported: their analysis is only complete
+   *  at the end of the run.
+   */
+  default void unitAnalysisCompleted(SourceFile sourceFile) {
+  }
+
   default void apiPhaseCompleted() {
   }
 
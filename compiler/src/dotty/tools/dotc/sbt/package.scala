@@ -1,6 +1,7 @@
 package dotty.tools.dotc.sbt
 
-import dotty.tools.dotc.core.Contexts.Context
+import dotty.tools.dotc.CompilationUnit
+import dotty.tools.dotc.core.Contexts.{Context, ctx}
 import dotty.tools.dotc.core.Symbols.Symbol
 import dotty.tools.dotc.core.NameOps.stripModuleClassSuffix
 import dotty.tools.dotc.core.Names.Name
@@ -28,6 +29,13 @@ def asyncZincPhasesCompleted(cb: IncrementalCallback, pending: Option[BufferingR
       zincReporter.exception(em"signaling API and Dependencies phases completion", t)
   zincReporter
 
+/** Tell the build tool that everything this run reports about `unit` was reported: after `Inlining`
+ *  for Scala units, and when they are dropped from the run for Java units, whose dependencies are
+ *  left to the build tool. Units of a run stopped before `Inlining` are never reported as completed.
+ */
+def unitAnalysisCompleted(unit: CompilationUnit)(using Context): Unit =
+  if ctx.runZincPhases then ctx.withIncCallback(_.unitAnalysisCompleted(unit.source))
+
 extension (sym: Symbol)
 
   /** Mangle a JVM symbol name in a format better suited for internal uses by sbt.
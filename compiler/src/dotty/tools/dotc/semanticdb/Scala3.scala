@@ -10,7 +10,7 @@ import core.Flags.*
 import core.NameKinds
 import core.StdNames.nme
 import SymbolInformation.{Kind => k}
-import dotty.tools.dotc.util.SourceFile
+import dotty.tools.dotc.util.{LineIndex, SourceFile}
 import dotty.tools.dotc.util.Spans.Span
 import dotty.tools.dotc.core.Names.Designator
 
@@ -30,10 +30,9 @@ object Scala3:
   private val WILDCARDTypeName = nme.WILDCARD.toTypeName
 
   def range(span: Span, treeSource: SourceFile): Option[Range] =
-    def lineCol(offset: Int) = (treeSource.offsetToLine(offset), treeSource.column(offset))
-    val (startLine, startCol) = lineCol(span.start)
-    val (endLine, endCol) = lineCol(span.end)
-    Some(Range(startLine, startCol, endLine, endCol))
+    val start = treeSource.lineColumn(span.start)
+    val end = treeSource.lineColumn(span.end)
+    Some(Range(LineIndex.line(start), LineIndex.column(start), LineIndex.line(end), LineIndex.column(end)))
 
   def namePresentInSource(desig: Designator, span: Span, source:SourceFile)(using Context): Boolean =
     if !span.exists then false
@@ -52,6 +52,8 @@ class Inlining extends MacroTransform, IdentityDenotTransformer {
     if unit.needsInlining || unit.hasMacroAnnotations then
       super.run
     rec.sendToZinc()
+    // the API of the unit was sent by `ExtractAPI`, which runs before this phase
+    sbt.unitAnalysisCompleted(unit)
 
     if ctx.settings.YdumpSbtInc.value then
       val deps = rec.foundDeps.iterator.map { case (clazz, found) => s"$clazz: ${found.classesString}" }.toArray[Object]
@@ -40,7 +40,7 @@ object Pickler {
 
   /** If set, perform jump target compacting, position and comment pickling,
    *  as well as final assembly in parallel with downstream phases; force
-   *  only in backend.
+   *  only in backend. The work is spread over `-Ypickler-parallelism` threads.
    */
   inline val ParallelPickling = true
 
@@ -219,33 +219,52 @@ class Pickler extends Phase {
     clss.filterNot(companionModuleClasses.contains)
   }
 
-  /** Runs given functions with a scratch data block in a serialized fashion (i.e.
-   *  inside a synchronized block). Scratch data is re-used between calls.
+  /** Runs given functions with a scratch data block of the current thread.
+   *  Scratch data is re-used between calls on the same thread.
    *  Used to conserve on memory usage by avoiding to create scratch data for each
-   *  pickled unit.
+   *  pickled unit, while letting each pickler worker use its own buffers.
+   *
+   *  Pickled TASTy is committed together with the position of its class in the
+   *  order the classes were pickled on the main thread, so that `result()` is the
+   *  same whatever the order in which the workers complete.
    */
   object serialized:
-    val scratch = new ScratchData
-    private val buf = mutable.ListBuffer.empty[(String, Array[Byte])]
+    private val scratch = ThreadLocal.withInitial(() => new ScratchData).nn
+    private val buf = mutable.ArrayBuffer.empty[(Int, String, Array[Byte])]
+    private var reserved = 0
     def run(body: ScratchData => Array[Byte]): Array[Byte] =
-      synchronized {
-        scratch.reset()
-        body(scratch)
-      }
-    def commit(internalName: String, tasty: Array[Byte]): Unit = synchronized {
-      buf += ((internalName, tasty))
+      val scratch = this.scratch.get.nn
+      scratch.reset()
+      body(scratch)
+    /** The position of the next class to commit, only called from the main thread */
+    def reserve(): Int = synchronized {
+      reserved += 1
+      reserved
+    }
+    def commit(index: Int, internalName: String, tasty: Array[Byte]): Unit = synchronized {
+      buf += ((index, internalName, tasty))
     }
     def result(): List[(String, Array[Byte])] = synchronized {
-      val res = buf.toList
+      val res = buf.sortBy(_._1).map((_, internalName, tasty) => (internalName, tasty)).toList
       buf.clear()
+      reserved = 0
       res
     }
 
-  private val executor = Executor[Array[Byte]]()
+  private var executor: Executor[Array[Byte]] = uninitialized
 
   private def useExecutor(using Context) =
     Pickler.ParallelPickling && !ctx.isBestEffort && !ctx.settings.YtestPickler.value
 
+  /** The number of threads pickling in parallel. Printing the pickled TASTy is
+   *  only done in pickling order with a single thread.
+   */
+  private def picklerParallelism(using Context): Int =
+    if ctx.settings.YprintTasty.value || pickling != noPrinter then 1
+    else
+      val n = ctx.settings.YpicklerParallelism.value
+      if n == 0 then Runtime.getRuntime().nn.availableProcessors() else n
+
   private def printerContext(isOutline: Boolean)(using Context): Context =
     if isOutline then ctx.fresh.setPrinterFn(OutlinePrinter(_))
     else ctx
@@ -254,7 +273,7 @@ class Pickler extends Phase {
   private def runFromTasty(unit: CompilationUnit)(using Context): Unit = {
     val pickled = unit.pickled
     for (cls, bytes) <- pickled do
-      serialized.commit(computeInternalName(cls), bytes())
+      serialized.commit(serialized.reserve(), computeInternalName(cls), bytes())
   }
 
   private def computeInternalName(cls: ClassSymbol)(using Context): String =
@@ -315,6 +334,7 @@ class Pickler extends Phase {
       def reportPositionWarnings() = positionWarnings.foreach(report.warning(_))
 
       val internalName = if fastDoAsyncTasty then computeInternalName(cls) else ""
+      val index = if fastDoAsyncTasty then serialized.reserve() else 0
 
       def computePickled(): Array[Byte] = inContext(ctx.fresh) {
         serialized.run { scratch =>
@@ -347,7 +367,7 @@ class Pickler extends Phase {
             println(i"**** end of pickled info of $cls")
 
           if fastDoAsyncTasty then
-            serialized.commit(internalName, pickled)
+            serialized.commit(index, internalName, pickled)
 
           pickled
         }
@@ -393,11 +413,12 @@ class Pickler extends Phase {
 
     val result =
       if useExecutor then
+        executor = Executor[Array[Byte]](picklerParallelism)
         executor.start()
         try
           runPhase: doWrite =>
             // unless we redesign executor to have "Unit" schedule overload, we need some sentinel value.
-            executor.schedule(() => { doWrite(); Array.emptyByteArray })
+            executor.scheduleAfterAll(() => { doWrite(); Array.emptyByteArray })
         finally executor.close()
       else
         runPhase(_())
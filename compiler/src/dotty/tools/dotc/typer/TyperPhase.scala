@@ -108,7 +108,8 @@ class TyperPhase(addRootImports: Boolean = true) extends Phase {
         if javaCheck(using unitContext) // after typechecking to avoid cycles
       yield unitContext
     }
-    val newUnits = unitContexts2.map(_.compilationUnit).filterNot(discardAfterTyper)
+    val (discardedUnits, newUnits) = unitContexts2.map(_.compilationUnit).partition(discardAfterTyper)
+    for unit <- discardedUnits if unit.isJava do sbt.unitAnalysisCompleted(unit)
     ctx.run.nn.checkSuspendedUnits(newUnits)
     newUnits
 
@@ -45,6 +45,13 @@ abstract class GenericHashSet[T](initialCapacity: Int = 8, capacityMultiple: Int
     if resetToInitial then allocate(roundToPower(initialCapacity))
     else java.util.Arrays.fill(table, null)
 
+  /** Remove all elements, with a table large enough to hold `expected` elements
+   *  without growing, but no smaller than the initial table.
+   */
+  def clearFor(expected: Int): Unit =
+    used = 0
+    allocate(roundToPower(initialCapacity max (expected * capacityMultiple + 1)))
+
   /** The number of elements in the set */
   def size: Int = used
 
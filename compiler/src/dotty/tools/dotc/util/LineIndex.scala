@@ -0,0 +1,86 @@
+package dotty.tools.dotc.util
+
+import Chars.{CR, LF, isLineBreakChar}
+
+/** The offsets of the first characters of the lines of a source, followed by
+ *  the length of the source as a sentinel, in a sorted array that is searched
+ *  by bisection.
+ *
+ *  A line and a column can be returned together as a `Long` holding the line
+ *  in its upper and the column in its lower 32 bits (see `LineIndex.line` and
+ *  `LineIndex.column`), so that callers needing both search only once and do
+ *  not allocate.
+ */
+final class LineIndex private (starts: Array[Int]) {
+
+  /** The number of lines */
+  def lineCount: Int = starts.length - 1
+
+  /** The length of the source */
+  def length: Int = starts(starts.length - 1)
+
+  /** The offset of the first character of `line`. `lineStart(lineCount)` is the length of the source. */
+  def lineStart(line: Int): Int = starts(line)
+
+  /** The line containing `offset`, starting at 0.
+   *  @param hint  a line to try first, usually the result of a previous search
+   */
+  def lineOf(offset: Int, hint: Int = -1): Int =
+    val line = Util.bestFit(starts, starts.length, offset, hint)
+    if offset >= length then line - 1 // compensate for the sentinel
+    else line
+
+  /** The line and the column of `offset`, encoded as a `Long` */
+  def lineColumn(offset: Int, hint: Int = -1): Long =
+    val line = lineOf(offset, hint)
+    LineIndex.encode(line, offset - starts(line))
+}
+
+object LineIndex {
+
+  /** The line index of `cs`. A CR followed by a LF is a single line break. */
+  def apply(cs: Array[Char]): LineIndex =
+    def isLineBreak(i: Int) =
+      val ch = cs(i)
+      // don't identify the CR in CR LF as a line break, since LF will do.
+      if ch == CR then i + 1 == cs.length || cs(i + 1) != LF
+      else isLineBreakChar(ch)
+    var breaks = 0
+    var i = 0
+    while i < cs.length do
+      if isLineBreak(i) then breaks += 1
+      i += 1
+    val starts = new Array[Int](breaks + 2)
+    var line = 1
+    i = 0
+    while i < cs.length do
+      if isLineBreak(i) then
+        starts(line) = i + 1
+        line += 1
+      i += 1
+    starts(line) = cs.length
+    new LineIndex(starts)
+
+  /** The line index of a source whose lines, separated by a single '\n',
+   *  have the given `sizes`. The last line does not end with '\n'.
+   */
+  def fromLineSizes(sizes: Array[Int]): LineIndex =
+    val lines = sizes.length
+    val starts = new Array[Int](lines + 1)
+    var i = 0
+    val penultimate = lines - 1
+    while i < penultimate do
+      starts(i + 1) = starts(i) + sizes(i) + 1 // `+1` for the '\n' at the end of the line
+      i += 1
+    starts(lines) = starts(penultimate) + sizes(penultimate)
+    new LineIndex(starts)
+
+  inline def encode(line: Int, column: Int): Long =
+    (line.toLong << 32) | (column & 0xFFFFFFFFL)
+
+  /** The line of an encoded line and column */
+  inline def line(lineColumn: Long): Int = (lineColumn >>> 32).toInt
+
+  /** The column of an encoded line and column */
+  inline def column(lineColumn: Long): Int = lineColumn.toInt
+}
@@ -13,7 +13,6 @@ import scala.io.Codec
 import Chars.*
 import scala.annotation.internal.sharable
 import scala.collection.mutable
-import scala.collection.mutable.ArrayBuffer
 import scala.compiletime.uninitialized
 import dotty.tools.dotc.util.chaining.*
 
@@ -127,7 +126,7 @@ class SourceFile(val file: AbstractFile, computeContent: => Array[Char]) extends
    * Note that when the source is from Tasty, content() could be empty even though length > 0.
    * Use content().length to determine the length of content(). */
   def length: Int =
-    if lineIndicesCache ne null then lineIndicesCache.last
+    if myLineIndex ne null then myLineIndex.length
     else content().length
 
   /** true for all source files except `NoSource` */
@@ -152,48 +151,27 @@ class SourceFile(val file: AbstractFile, computeContent: => Array[Char]) extends
     if isSelfContained then position // return the argument
     else SourcePosition(underlying, position.span.shift(start))
 
-  private def calculateLineIndicesFromContents() = {
-    val cs = content()
-    val buf = new ArrayBuffer[Int]
-    buf += 0
-    var i = 0
-    while i < cs.length do
-      val isLineBreak =
-        val ch = cs(i)
-        // don't identify the CR in CR LF as a line break, since LF will do.
-        if ch == CR then i + 1 == cs.length || cs(i + 1) != LF
-        else isLineBreakChar(ch)
-      if isLineBreak then buf += i + 1
-      i += 1
-    buf += cs.length // sentinel, so that findLine below works smoother
-    buf.toArray
-  }
+  private var myLineIndex: LineIndex = uninitialized
 
-  private var lineIndicesCache: Array[Int] = uninitialized
-  private def lineIndices: Array[Int] =
-    if lineIndicesCache eq null then
-      lineIndicesCache = calculateLineIndicesFromContents()
-    lineIndicesCache
+  /** The line index of this source, computed from its content unless set by
+   *  `setLineIndicesFromLineSizes`.
+   */
+  def lineIndex: LineIndex =
+    if myLineIndex eq null then
+      myLineIndex = LineIndex(content())
+    myLineIndex
 
-  def initialized = lineIndicesCache != null
+  def initialized = myLineIndex != null
 
   def setLineIndicesFromLineSizes(sizes: Array[Int]): Unit =
-    val lines = sizes.length
-    val indices = new Array[Int](lines + 1)
-    var i = 0
-    val penultimate = lines - 1
-    while i < penultimate do
-      indices(i + 1) = indices(i) + sizes(i) + 1 // `+1` for the '\n' at the end of the line
-      i += 1
-    indices(lines) = indices(penultimate) + sizes(penultimate) // last line does not end with '\n'
-    lineIndicesCache = indices
+    myLineIndex = LineIndex.fromLineSizes(sizes)
 
   /** Map line to offset of first character in line */
-  def lineToOffset(index: Int): Int = lineIndices(index)
+  def lineToOffset(index: Int): Int = lineIndex.lineStart(index)
 
   /** Like `lineToOffset`, but doesn't crash if the index is out of bounds. */
   def lineToOffsetOpt(index: Int): Option[Int] =
-    if (index < 0 || index >= lineIndices.length)
+    if (index < 0 || index > lineIndex.lineCount)
       None
     else
       Some(lineToOffset(index))
@@ -205,11 +183,19 @@ class SourceFile(val file: AbstractFile, computeContent: => Array[Char]) extends
    *  Lines are numbered from 0
    */
   def offsetToLine(offset: Int): Int = {
-    lastLine = Util.bestFit(lineIndices, lineIndices.length, offset, lastLine)
-    if (offset >= length) lastLine -= 1 // compensate for the sentinel
+    lastLine = lineIndex.lineOf(offset, lastLine)
     lastLine
   }
 
+  /** The line and the column of `offset`, encoded as a `Long`
+   *  (see `LineIndex.line` and `LineIndex.column`)
+   */
+  def lineColumn(offset: Int): Long = {
+    val lc = lineIndex.lineColumn(offset, lastLine)
+    lastLine = LineIndex.line(lc)
+    lc
+  }
+
   /** The index of the first character of the line containing position `offset` */
   def startOfLine(offset: Int): Int = {
     require(offset >= 0)
@@ -218,7 +204,7 @@ class SourceFile(val file: AbstractFile, computeContent: => Array[Char]) extends
 
   /** The start index of the line following the one containing position `offset` */
   def nextLine(offset: Int): Int =
-    lineToOffset(offsetToLine(offset) + 1 min lineIndices.length - 1)
+    lineToOffset(offsetToLine(offset) + 1 min lineIndex.lineCount)
 
   /** The content of the line containing position `offset` */
   def lineContent(offset: Int): String =
@@ -226,8 +212,8 @@ class SourceFile(val file: AbstractFile, computeContent: => Array[Char]) extends
 
   /** The column corresponding to `offset`, starting at 0 */
   def column(offset: Int): Int = {
-    var idx = startOfLine(offset)
-    offset - idx
+    require(offset >= 0)
+    LineIndex.column(lineColumn(offset))
   }
 
   /** The padding of the column corresponding to `offset`, includes tabs */
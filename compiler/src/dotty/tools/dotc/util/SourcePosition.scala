@@ -53,10 +53,16 @@ extends SrcPos, interfaces.SourcePosition, Showable:
   def startColumn: Int = source.column(start)
   def startColumnPadding: String = source.startColumnPadding(start)
 
+  /** The line and column of `start`, encoded as in `LineIndex` */
+  def startLineColumn: Long = source.lineColumn(start)
+
   def end: Int = span.end
   def endLine: Int = source.offsetToLine(end)
   def endColumn: Int = source.column(end)
 
+  /** The line and column of `end`, encoded as in `LineIndex` */
+  def endLineColumn: Long = source.lineColumn(end)
+
   def withOuter(outer: SourcePosition): SourcePosition = SourcePosition(source, span, outer)
   def withSpan(range: Span) = SourcePosition(source, range, outer)
 
@@ -19,20 +19,40 @@ object concurrent:
     }
   end Future
 
-  class Executor[T] extends Thread:
+  /** Runs scheduled operations on `workers` threads, taking them in the order
+   *  they were scheduled.
+   */
+  class Executor[T](workers: Int = 1):
     private type WorkItem = (Future[T], () => T)
 
     private var allScheduled = false
     private val pending = new ArrayBuffer[WorkItem]
+    private val scheduled = new ArrayBuffer[Future[T]]
+
+    private val threads = Array.fill(workers.max(1))(new Thread(() => work()))
+
+    def start(): Unit = threads.foreach(_.start())
+
+    def isAlive: Boolean = threads.exists(_.isAlive)
 
     def schedule(op: () => T): Future[T] = synchronized {
       assert(!allScheduled)
       val f = Future[T](this)
       pending += ((f, op))
+      scheduled += f
       notifyAll()
       f
     }
 
+    /** Schedules `op` to run once all operations scheduled before it have completed */
+    def scheduleAfterAll(op: () => T): Future[T] = synchronized {
+      val before = scheduled.toList
+      schedule { () =>
+        before.foreach(_.force)
+        op()
+      }
+    }
+
     def close(): Unit = synchronized {
       allScheduled = true
       notifyAll()
@@ -47,7 +67,7 @@ object concurrent:
         Some(item)
     }
 
-    override def run(): Unit =
+    private def work(): Unit =
       while
         nextPending() match
           case Some((f, op)) =>
@@ -0,0 +1,242 @@
+package dotty.tools.io
+
+import scala.language.unsafeNulls
+
+import java.io.{ByteArrayOutputStream, RandomAccessFile}
+import java.nio.{ByteBuffer, ByteOrder}
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Path
+import java.time.LocalDateTime
+import java.util.concurrent.{ConcurrentHashMap, ConcurrentLinkedQueue}
+import java.util.concurrent.atomic.AtomicLong
+import java.util.jar.{JarFile, Manifest}
+import java.util.zip.{CRC32, Deflater, ZipException}
+
+/** A jar writer to which entries can be added concurrently.
+ *
+ *  `java.util.jar.JarOutputStream` must be locked for the whole time it takes to deflate an entry,
+ *  so the backend threads end up serialized on it. Here the CRC and the compressed bytes of an entry
+ *  are computed by the thread adding it, which then reserves the region of the file that the entry
+ *  occupies with a single atomic add and fills it. The file is only locked for the duration of each
+ *  write; the central directory is written by `close`.
+ *
+ *  The file is written through a `RandomAccessFile` rather than a `FileChannel`: an interrupted thread
+ *  closes a `FileChannel` (including the one of a `RandomAccessFile`) for all the threads using it,
+ *  which would make a single cancelled backend thread fail the whole jar.
+ *
+ *  The manifest is the first entry, as expected by `JarInputStream`. Zip64 end records are written
+ *  when the jar has more than 65534 entries or grows beyond 4GB.
+ */
+final class ConcurrentJarWriter(path: Path, manifest: Manifest, compressionLevel: Int) {
+  import ConcurrentJarWriter.*
+
+  private val storeOnly = compressionLevel == Deflater.NO_COMPRESSION
+
+  private val file = new RandomAccessFile(path.toFile, "rw")
+  file.setLength(0L)
+
+  /** The offset at which the next entry is written */
+  private val end = new AtomicLong(0L)
+
+  private val entries = new ConcurrentLinkedQueue[Entry]
+  private val names = ConcurrentHashMap.newKeySet[String]()
+
+  /** Idle deflaters, so that each one is used by a single thread at a time and all can be released by `close` */
+  private val deflaters = new ConcurrentLinkedQueue[Deflater]
+
+  /** All entries share the time at which the writer was created, in MS-DOS format */
+  private val dosTime: Int = {
+    val now = LocalDateTime.now()
+    if (now.getYear < 1980) DosTimeMin
+    else ((now.getYear - 1980) << 25) | (now.getMonthValue << 21) | (now.getDayOfMonth << 16) |
+      (now.getHour << 11) | (now.getMinute << 5) | (now.getSecond >> 1)
+  }
+
+  locally {
+    val out = new ByteArrayOutputStream
+    manifest.write(out)
+    addEntry(JarFile.MANIFEST_NAME, out.toByteArray)
+  }
+
+  /** Adds an entry to the jar. Safe to call from several threads at once. */
+  def addEntry(name: String, bytes: Array[Byte]): Unit = {
+    if (!names.add(name)) throw new ZipException(s"duplicate entry: $name")
+    val nameBytes = name.getBytes(UTF_8)
+    val crc = new CRC32
+    crc.update(bytes, 0, bytes.length)
+
+    var data = bytes
+    var dataLength = bytes.length
+    var method = Stored
+    if (!storeOnly && bytes.length > 0) {
+      val deflater = acquireDeflater()
+      try {
+        val deflated = deflate(deflater, bytes)
+        // keep incompressible entries stored, as `zip` does
+        if (deflater.getBytesWritten < bytes.length) {
+          data = deflated
+          dataLength = deflater.getBytesWritten.toInt
+          method = Deflated
+        }
+      }
+      finally deflaters.offer(deflater)
+    }
+
+    val entry = Entry(nameBytes, method, crc.getValue.toInt, dataLength, bytes.length, 0L)
+    val header = localHeader(entry)
+    val offset = end.getAndAdd(header.remaining.toLong + dataLength)
+    writeFully(header, offset)
+    writeFully(ByteBuffer.wrap(data, 0, dataLength), offset + LocalHeaderSize + nameBytes.length)
+    entries.add(entry.copy(offset = offset))
+  }
+
+  /** Writes the central directory and closes the file. Must be called once all entries have been added. */
+  def close(): Unit =
+    try {
+      val all = entries.toArray(new Array[Entry](0)).sortInPlaceBy(_.offset)
+      val centralStart = end.get
+      val central = centralDirectory(all)
+      val centralSize = central.remaining.toLong
+      writeFully(central, centralStart)
+      writeFully(endRecords(all.length, centralStart, centralSize), centralStart + centralSize)
+    }
+    finally {
+      file.close()
+      var deflater = deflaters.poll()
+      while (deflater != null) {
+        deflater.end()
+        deflater = deflaters.poll()
+      }
+    }
+
+  private def acquireDeflater(): Deflater = {
+    val idle = deflaters.poll()
+    if (idle != null) { idle.reset(); idle }
+    else new Deflater(compressionLevel, /* nowrap = */ true)
+  }
+
+  /** Deflates `bytes`, the compressed size is `deflater.getBytesWritten` */
+  private def deflate(deflater: Deflater, bytes: Array[Byte]): Array[Byte] = {
+    deflater.setInput(bytes)
+    deflater.finish()
+    var out = new Array[Byte](bytes.length / 2 + 64)
+    var written = 0
+    while (!deflater.finished()) {
+      if (written == out.length) out = java.util.Arrays.copyOf(out, out.length * 2)
+      written += deflater.deflate(out, written, out.length - written)
+    }
+    out
+  }
+
+  private def writeFully(buffer: ByteBuffer, offset: Long): Unit = file.synchronized {
+    file.seek(offset)
+    file.write(buffer.array, buffer.arrayOffset + buffer.position, buffer.remaining)
+  }
+
+  private def localHeader(entry: Entry): ByteBuffer = {
+    val buf = ByteBuffer.allocate(LocalHeaderSize + entry.name.length).order(ByteOrder.LITTLE_ENDIAN)
+    buf.putInt(LocalHeaderSignature)
+    buf.putShort(VersionNeeded.toShort)
+    buf.putShort(Utf8Flag.toShort)
+    buf.putShort(entry.method.toShort)
+    buf.putInt(dosTime)
+    buf.putInt(entry.crc)
+    buf.putInt(entry.compressedSize)
+    buf.putInt(entry.size)
+    buf.putShort(entry.name.length.toShort)
+    buf.putShort(0.toShort)
+    buf.put(entry.name)
+    buf.flip()
+  }
+
+  private def centralDirectory(all: Array[Entry]): ByteBuffer = {
+    var size = 0L
+    for (entry <- all) size += CentralHeaderSize + entry.name.length + (if (entry.offset >= Zip64Limit) Zip64ExtraSize else 0)
+    val buf = ByteBuffer.allocate(size.toInt).order(ByteOrder.LITTLE_ENDIAN)
+    for (entry <- all) {
+      val zip64 = entry.offset >= Zip64Limit
+      buf.putInt(CentralHeaderSignature)
+      buf.putShort((if (zip64) VersionZip64 else VersionNeeded).toShort) // made by
+      buf.putShort((if (zip64) VersionZip64 else VersionNeeded).toShort) // needed
+      buf.putShort(Utf8Flag.toShort)
+      buf.putShort(entry.method.toShort)
+      buf.putInt(dosTime)
+      buf.putInt(entry.crc)
+      buf.putInt(entry.compressedSize)
+      buf.putInt(entry.size)
+      buf.putShort(entry.name.length.toShort)
+      buf.putShort((if (zip64) Zip64ExtraSize else 0).toShort)
+      buf.putShort(0.toShort) // comment length
+      buf.putShort(0.toShort) // disk number
+      buf.putShort(0.toShort) // internal attributes
+      buf.putInt(0)           // external attributes
+      buf.putInt(if (zip64) Zip64Limit.toInt else entry.offset.toInt)
+      buf.put(entry.name)
+      if (zip64) {
+        buf.putShort(Zip64ExtraTag.toShort)
+        buf.putShort(8.toShort)
+        buf.putLong(entry.offset)
+      }
+    }
+    buf.flip()
+  }
+
+  private def endRecords(count: Int, centralStart: Long, centralSize: Long): ByteBuffer = {
+    val zip64 = count >= 0xFFFF || centralStart >= Zip64Limit || centralSize >= Zip64Limit
+    val buf = ByteBuffer.allocate((if (zip64) Zip64EndSize + Zip64LocatorSize else 0) + EndSize).order(ByteOrder.LITTLE_ENDIAN)
+    if (zip64) {
+      val zip64End = centralStart + centralSize
+      buf.putInt(Zip64EndSignature)
+      buf.putLong(Zip64EndSize - 12L)
+      buf.putShort(VersionZip64.toShort)
+      buf.putShort(VersionZip64.toShort)
+      buf.putInt(0)
+      buf.putInt(0)
+      buf.putLong(count.toLong)
+      buf.putLong(count.toLong)
+      buf.putLong(centralSize)
+      buf.putLong(centralStart)
+      buf.putInt(Zip64LocatorSignature)
+      buf.putInt(0)
+      buf.putLong(zip64End)
+      buf.putInt(1)
+    }
+    buf.putInt(EndSignature)
+    buf.putShort(0.toShort)
+    buf.putShort(0.toShort)
+    buf.putShort((if (zip64) 0xFFFF else count).toShort)
+    buf.putShort((if (zip64) 0xFFFF else count).toShort)
+    buf.putInt(if (zip64) Zip64Limit.toInt else centralSize.toInt)
+    buf.putInt(if (zip64) Zip64Limit.toInt else centralStart.toInt)
+    buf.putShort(0.toShort) // comment length
+    buf.flip()
+  }
+}
+
+object ConcurrentJarWriter {
+  private case class Entry(name: Array[Byte], method: Int, crc: Int, compressedSize: Int, size: Int, offset: Long)
+
+  private final val LocalHeaderSignature = 0x04034b50
+  private final val CentralHeaderSignature = 0x02014b50
+  private final val EndSignature = 0x06054b50
+  private final val Zip64EndSignature = 0x06064b50
+  private final val Zip64LocatorSignature = 0x07064b50
+
+  private final val LocalHeaderSize = 30
+  private final val CentralHeaderSize = 46
+  private final val EndSize = 22
+  private final val Zip64EndSize = 56
+  private final val Zip64LocatorSize = 20
+  private final val Zip64ExtraSize = 12
+  private final val Zip64ExtraTag = 0x0001
+  private final val Zip64Limit = 0xFFFFFFFFL
+
+  private final val VersionNeeded = 20
+  private final val VersionZip64 = 45
+  private final val Utf8Flag = 0x0800
+  private final val Stored = 0
+  private final val Deflated = 8
+
+  /** 1980-01-01 00:00:00 */
+  private final val DosTimeMin = (1 << 21) | (1 << 16)
+}
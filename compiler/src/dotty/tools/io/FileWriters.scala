@@ -6,9 +6,7 @@ import dotty.tools.io.AbstractFile
 import dotty.tools.io.JarArchive
 import dotty.tools.io.PlainFile
 
-import java.io.BufferedOutputStream
 import java.io.DataOutputStream
-import java.io.FileOutputStream
 import java.io.IOException
 import java.nio.ByteBuffer
 import java.nio.channels.ClosedByInterruptException
@@ -20,10 +18,6 @@ import java.nio.file.StandardOpenOption
 import java.nio.file.attribute.FileAttribute
 import java.util
 import java.util.concurrent.ConcurrentHashMap
-import java.util.zip.CRC32
-import java.util.zip.Deflater
-import java.util.zip.ZipEntry
-import java.util.zip.ZipOutputStream
 import scala.collection.mutable
 
 import dotty.tools.dotc.core.Contexts, Contexts.Context
@@ -135,6 +129,7 @@ object FileWriters {
 
   trait ReadOnlySettings:
     def jarCompressionLevel: Int
+    def skipUnchangedOutput: Boolean
     def debug: Boolean
 
   trait ReadOnlyRun:
@@ -151,6 +146,7 @@ object FileWriters {
   object ReadOnlyContext:
     def readSettings(using ctx: Context): ReadOnlySettings = new:
       val jarCompressionLevel = ctx.settings.XjarCompressionLevel.value
+      val skipUnchangedOutput = ctx.settings.XskipUnchangedOutput.value
       val debug = ctx.settings.Ydebug.value
 
     def readRun(using ctx: Context): ReadOnlyRun = new:
@@ -234,18 +230,17 @@ object FileWriters {
         new JarEntryWriter(jarFile, jarManifestMainClass, jarCompressionLevel)
       }
       else if (file.isVirtual) new VirtualFileWriter(file)
-      else if (file.isDirectory) new DirEntryWriter(file.file.toPath)
+      else if (file.isDirectory) new DirEntryWriter(file.file.toPath, ctx.settings.skipUnchangedOutput)
       else throw new IllegalStateException(s"don't know how to handle an output of $file [${file.getClass}]")
   }
 
   private final class JarEntryWriter(file: AbstractFile, mainClass: Option[String], compressionLevel: Int) extends FileWriter {
     //keep these imports local - avoid confusion with scala naming
     import java.util.jar.Attributes.Name.{MANIFEST_VERSION, MAIN_CLASS}
-    import java.util.jar.{JarOutputStream, Manifest}
+    import java.util.jar.Manifest
 
-    val storeOnly = compressionLevel == Deflater.NO_COMPRESSION
-
-    val jarWriter: JarOutputStream = {
+    // Entries are compressed by the thread writing them, see `ConcurrentJarWriter`
+    val jarWriter: ConcurrentJarWriter = {
       import scala.util.Properties.*
       val manifest = new Manifest
       val attrs = manifest.getMainAttributes
@@ -253,38 +248,18 @@ object FileWriters {
       attrs.put(ScalaCompilerVersion, versionNumberString)
       mainClass.foreach(c => attrs.put(MAIN_CLASS, c))
 
-      val jar = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(file.file), 64000), manifest)
-      jar.setLevel(compressionLevel)
-      if (storeOnly) jar.setMethod(ZipOutputStream.STORED)
-      jar
+      new ConcurrentJarWriter(file.file.toPath, manifest, compressionLevel)
     }
 
-    lazy val crc = new CRC32
-
-    override def writeFile(relativePath: String, bytes: Array[Byte])(using ReadOnlyContext): NullableFile = this.synchronized {
-      val entry = new ZipEntry(relativePath)
-      if (storeOnly) {
-        // When using compression method `STORED`, the ZIP spec requires the CRC and compressed/
-        // uncompressed sizes to be written before the data. The JarOutputStream could compute the
-        // values while writing the data, but not patch them into the stream after the fact. So we
-        // need to pre-compute them here. The compressed size is taken from size.
-        // https://stackoverflow.com/questions/1206970/how-to-create-uncompressed-zip-archive-in-java/5868403
-        // With compression method `DEFLATED` JarOutputStream computes and sets the values.
-        entry.setSize(bytes.length)
-        crc.reset()
-        crc.update(bytes)
-        entry.setCrc(crc.getValue)
-      }
-      jarWriter.putNextEntry(entry)
-      try jarWriter.write(bytes, 0, bytes.length)
-      finally jarWriter.flush()
+    override def writeFile(relativePath: String, bytes: Array[Byte])(using ReadOnlyContext): NullableFile = {
+      jarWriter.addEntry(relativePath, bytes)
       null
     }
 
-    override def close(): Unit = this.synchronized(jarWriter.close())
+    override def close(): Unit = jarWriter.close()
   }
 
-  private final class DirEntryWriter(base: Path) extends FileWriter {
+  private final class DirEntryWriter(base: Path, skipUnchanged: Boolean) extends FileWriter {
     val builtPaths = new ConcurrentHashMap[Path, java.lang.Boolean]()
     val noAttributes = Array.empty[FileAttribute[?]]
     private val isWindows = scala.util.Properties.isWin
@@ -326,25 +301,32 @@ object FileWriters {
     private val fastOpenOptions = util.EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
     private val fallbackOpenOptions = util.EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
 
+    /** Does the file at `path` already contain exactly `bytes`? Then it is kept as is, with its modification time. */
+    private def hasContent(path: Path, bytes: Array[Byte]): Boolean =
+      try Files.size(path) == bytes.length && util.Arrays.equals(Files.readAllBytes(path), bytes)
+      catch { case _: IOException => false }
+
     override def writeFile(relativePath: String, bytes: Array[Byte])(using ReadOnlyContext): NullableFile = {
       val path = base.resolve(relativePath)
       try {
         ensureDirForPath(base, path)
-        val os = if (isWindows) {
-          try FileChannel.open(path, fastOpenOptions)
+        if (!skipUnchanged || !hasContent(path, bytes)) {
+          val os = if (isWindows) {
+            try FileChannel.open(path, fastOpenOptions)
+            catch {
+              case _: FileAlreadyExistsException => FileChannel.open(path, fallbackOpenOptions)
+            }
+          } else FileChannel.open(path, fallbackOpenOptions)
+
+          try os.write(ByteBuffer.wrap(bytes), 0L)
           catch {
-            case _: FileAlreadyExistsException => FileChannel.open(path, fallbackOpenOptions)
+            case ex: ClosedByInterruptException =>
+              try Files.deleteIfExists(path) // don't leave a empty of half-written classfile around after an interrupt
+              catch { case _: Throwable => () }
+              throw ex
           }
-        } else FileChannel.open(path, fallbackOpenOptions)
-
-        try os.write(ByteBuffer.wrap(bytes), 0L)
-        catch {
-          case ex: ClosedByInterruptException =>
-            try Files.deleteIfExists(path) // don't leave a empty of half-written classfile around after an interrupt
-            catch { case _: Throwable => () }
-            throw ex
+          os.close()
         }
-        os.close()
       } catch {
         case e: FileConflictException =>
           ctx.reporter.error(em"error writing ${path.toString}: ${e.getMessage}")
@@ -0,0 +1,323 @@
+package dotty.tools.io
+
+import scala.language.unsafeNulls
+
+import java.io.{Closeable, IOException}
+import java.nio.{ByteBuffer, ByteOrder, MappedByteBuffer}
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.{Path, Paths, StandardOpenOption}
+import java.time.{LocalDateTime, ZoneId}
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.zip.{DataFormatException, Inflater, ZipException}
+
+/** A read-only zip file backed by a memory mapping of the whole archive.
+ *
+ *  `java.util.zip.ZipFile` copies the central directory to the heap, and reads every entry through an
+ *  `InflaterInputStream` that copies its bytes once more into the caller's array. Here the central directory
+ *  is decoded straight from the mapping, stored entries are views of the mapped bytes, and deflated entries
+ *  are inflated in one call, with a pooled `Inflater`, into an array of their exact size.
+ *
+ *  The companion object can also decode the central directory, and read an entry at the offset it records, with
+ *  positional reads instead of a mapping (see `readEntries` and `readEntry`), as `ZipArchiveIndex` requires.
+ *
+ *  Multi-release jars are read as plain zip files: `FileZipArchive` keeps using `JarFile` when a `-release`
+ *  is selected.
+ *
+ *  A read fails with a `ZipException` if the file was truncated or rewritten since it was mapped, or once the
+ *  mapping was closed, so that callers can read the entry with a `ZipFile` instead.
+ */
+final class MappedZipFile private (val path: Path, mapping: MappedByteBuffer, val entries: Array[MappedZipFile.Entry]) extends Closeable {
+  import MappedZipFile.*
+
+  // dropped by `close`, so that the mapping is released once it is garbage collected
+  @volatile private var buffer: MappedByteBuffer = mapping
+
+  def close(): Unit = buffer = null
+
+  private lazy val byName: java.util.HashMap[String, Entry] = {
+    val map = new java.util.HashMap[String, Entry](entries.length * 2)
+    for (entry <- entries) map.putIfAbsent(entry.name, entry)
+    map
+  }
+
+  /** The entry named `name`, or `null` */
+  def entry(name: String): Entry = byName.get(name)
+
+  /** The uncompressed content of `entry`, as a read-only view of the mapping if it is stored.
+   *  Unlike `read`, reading the view of a stored entry may throw an `InternalError` if the file changed.
+   */
+  def view(entry: Entry): ByteBuffer =
+    guarded(entry) {
+      if (entry.method == Stored) data(entry, entry.size).asReadOnlyBuffer()
+      else ByteBuffer.wrap(inflate(entry))
+    }
+
+  /** The uncompressed content of `entry` in a new array */
+  def read(entry: Entry): Array[Byte] =
+    guarded(entry) {
+      if (entry.method == Stored) {
+        val bytes = new Array[Byte](entry.size)
+        data(entry, entry.size).get(bytes)
+        bytes
+      }
+      else inflate(entry)
+    }
+
+  /** Runs `op`, turning the errors raised by accesses to the mapping of a changed file into `ZipException`s */
+  private inline def guarded[T](entry: Entry)(inline op: T): T =
+    try op
+    catch {
+      case ex: InternalError => throw new ZipException(s"cannot read ${entry.name} in $path, which changed since it was mapped: $ex")
+      case ex: IndexOutOfBoundsException => throw new ZipException(s"invalid entry ${entry.name} in $path: $ex")
+    }
+
+  private def data(entry: Entry, length: Int): ByteBuffer = {
+    val buffer = this.buffer
+    if (buffer == null) throw new ZipException(s"$path is closed")
+    val header = entry.headerOffset
+    if (buffer.getInt(header) != LocalHeaderSignature)
+      throw new ZipException(s"invalid local header for ${entry.name} in $path")
+    val start = header + LocalHeaderSize + u16(buffer, header + 26) + u16(buffer, header + 28)
+    buffer.slice(start, length)
+  }
+
+  private def inflate(entry: Entry): Array[Byte] =
+    MappedZipFile.inflate(path, entry.name, entry.method, data(entry, entry.compressedSize), entry.size)
+}
+
+object MappedZipFile {
+  /** A file entry of the central directory */
+  final class Entry(val name: String, val method: Int, dosTime: Int, val compressedSize: Int, val size: Int, private[io] val headerOffset: Int) {
+    def isDirectory: Boolean = name.endsWith("/")
+    def lastModified: Long = dosToJavaTime(dosTime)
+  }
+
+  /** Which jars are read through mappings, according to the `scala.classpath.mapZip` system property: none
+   *  by default or if it is `false`, all of them if it is `true`, and only the jars of the coursier and ivy
+   *  caches if it is `cache`.
+   *
+   *  A mapped file must not be truncated or rewritten in place: reading it then fails, or crashes the JVM on
+   *  some platforms, which is why `java.util.zip.ZipFile` does not map jars. It can also not be deleted on
+   *  Windows until the mapping is garbage collected. Long-running compilers often see the jars of the
+   *  projects they build being rewritten, but the jars of dependency caches are only ever added.
+   */
+  def shouldMap(path: Path): Boolean = mode match {
+    case "true"  => true
+    case "cache" => isInDependencyCache(path)
+    case _       => false
+  }
+
+  private val mode: String = sys.props.getOrElse("scala.classpath.mapZip", "false").toLowerCase
+
+  private def isInDependencyCache(path: Path): Boolean = {
+    val absolute = path.toAbsolutePath.normalize
+    val dirs = (0 until absolute.getNameCount - 1).map(absolute.getName(_).toString.toLowerCase)
+    def coursierCache = sys.env.get("COURSIER_CACHE").filter(_.nonEmpty).exists(dir => absolute.startsWith(Paths.get(dir).toAbsolutePath.normalize))
+    !absolute.getFileName.toString.contains("-SNAPSHOT") && (
+      dirs.containsSlice(Seq("coursier", "v1"))
+      || dirs.containsSlice(Seq("coursier", "cache", "v1"))
+      || dirs.containsSlice(Seq(".ivy2", "cache"))
+      || coursierCache)
+  }
+
+  private final val LocalHeaderSignature = 0x04034b50
+  private final val CentralHeaderSignature = 0x02014b50
+  private final val EndSignature = 0x06054b50
+  private final val Zip64EndSignature = 0x06064b50
+  private final val Zip64LocatorSignature = 0x07064b50
+  private final val LocalHeaderSize = 30
+  private final val CentralHeaderSize = 46
+  private final val EndSize = 22
+  private final val Zip64LocatorSize = 20
+  private final val Stored = 0
+  private final val Deflated = 8
+
+  private val inflaters = new ConcurrentLinkedQueue[Inflater]
+
+  /** Inflates the compressed content of the entry `name` in `input` into an array of `size` bytes */
+  private def inflate(path: Path, name: String, method: Int, input: ByteBuffer, size: Int): Array[Byte] = {
+    if (method != Deflated)
+      throw new ZipException(s"unsupported compression method $method for $name in $path")
+    val inflater = { val idle = inflaters.poll(); if (idle != null) idle else new Inflater(/* nowrap = */ true) }
+    try {
+      inflater.setInput(input)
+      val bytes = new Array[Byte](size)
+      var n = 0
+      while (n < bytes.length && !inflater.finished()) {
+        val inflated = inflater.inflate(bytes, n, bytes.length - n)
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+          throw new ZipException(s"truncated entry $name in $path")
+        n += inflated
+      }
+      if (n != bytes.length) throw new ZipException(s"invalid size for $name in $path")
+      bytes
+    }
+    catch {
+      case ex: DataFormatException => throw new ZipException(s"invalid data for $name in $path: ${ex.getMessage}")
+    }
+    finally {
+      inflater.reset()
+      inflaters.offer(inflater)
+    }
+  }
+
+  /** Maps the zip file at `path`. Throws an `IOException` if it cannot be mapped or is not a valid zip file,
+   *  in which case callers should fall back to `java.util.zip.ZipFile`.
+   */
+  def open(path: Path): MappedZipFile = {
+    val channel = FileChannel.open(path, StandardOpenOption.READ)
+    val buffer =
+      try {
+        if (channel.size > Int.MaxValue) throw new IOException(s"$path is too large to be mapped")
+        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size)
+      }
+      finally channel.close() // the mapping stays valid
+    buffer.order(ByteOrder.LITTLE_ENDIAN)
+    try new MappedZipFile(path, buffer, readCentralDirectory(path, buffer))
+    catch {
+      case ex: IndexOutOfBoundsException => throw new ZipException(s"invalid zip file $path: $ex")
+      case ex: InternalError => throw new ZipException(s"cannot read $path, which changed since it was mapped: $ex")
+    }
+  }
+
+  /** Reads the central directory of the zip file at `path` with positional reads instead of a mapping.
+   *  Throws an `IOException` if it cannot be read or is not a valid zip file.
+   */
+  def readEntries(path: Path): Array[Entry] = {
+    val channel = FileChannel.open(path, StandardOpenOption.READ)
+    try {
+      val size = channel.size
+      val tailStart = math.max(0L, size - (EndSize + 0xFFFF + Zip64LocatorSize))
+      val tail = readAt(channel, path, tailStart, (size - tailStart).toInt)
+      val (offset, length, count) = locateCentralDirectory(path, tail, tailStart, readAt(channel, path, _, _))
+      decodeEntries(path, readAt(channel, path, offset, length.toInt), 0, count)
+    }
+    catch {
+      case ex: IndexOutOfBoundsException => throw new ZipException(s"invalid zip file $path: $ex")
+    }
+    finally channel.close()
+  }
+
+  /** The uncompressed content of the file entry `name` of the zip file at `path`, read from `channel` with
+   *  positional reads at the `headerOffset`, and of the `method` and sizes, recorded in the central directory.
+   */
+  def readEntry(channel: FileChannel, path: Path, name: String, method: Int, headerOffset: Int, compressedSize: Int, size: Int): Array[Byte] = {
+    val header = readAt(channel, path, headerOffset, LocalHeaderSize)
+    if (header.getInt(0) != LocalHeaderSignature)
+      throw new ZipException(s"invalid local header for $name in $path")
+    val data = readAt(channel, path, headerOffset.toLong + LocalHeaderSize + u16(header, 26) + u16(header, 28), compressedSize)
+    if (method != Stored) inflate(path, name, method, data, size)
+    else if (compressedSize != size) throw new ZipException(s"invalid size for $name in $path")
+    else data.array()
+  }
+
+  private def readAt(channel: FileChannel, path: Path, position: Long, length: Int): ByteBuffer = {
+    val buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN)
+    while (buf.hasRemaining)
+      if (channel.read(buf, position + buf.position()) < 0) throw new ZipException(s"unexpected end of $path")
+    buf.flip()
+    buf
+  }
+
+  private def readCentralDirectory(path: Path, buf: ByteBuffer): Array[Entry] = {
+    val (offset, _, count) = locateCentralDirectory(path, buf, 0L, (pos, length) => buf.slice(pos.toInt, length).order(ByteOrder.LITTLE_ENDIAN))
+    decodeEntries(path, buf, offset.toInt, count)
+  }
+
+  /** The offset, length and number of entries of the central directory of the zip file at `path`,
+   *  given the `tail` of the file, which starts at `tailStart` and ends at the end of the file, and a way
+   *  to `read` the zip64 end record, which may precede it.
+   */
+  private def locateCentralDirectory(path: Path, tail: ByteBuffer, tailStart: Long, read: (Long, Int) => ByteBuffer): (Long, Long, Int) = {
+    val end = findEnd(path, tail)
+    var count: Long = u16(tail, end + 10)
+    var length: Long = u32(tail, end + 12)
+    var offset: Long = u32(tail, end + 16)
+    val locator = end - Zip64LocatorSize
+    if (locator >= 0 && tail.getInt(locator) == Zip64LocatorSignature) {
+      val zip64End = tail.getLong(locator + 8)
+      if (zip64End < 0 || zip64End > tailStart + tail.limit() - 56)
+        throw new ZipException(s"invalid zip64 end record in $path")
+      val record = read(zip64End, 56)
+      if (record.getInt(0) != Zip64EndSignature)
+        throw new ZipException(s"invalid zip64 end record in $path")
+      count = record.getLong(32)
+      length = record.getLong(40)
+      offset = record.getLong(48)
+    }
+    if (count > Int.MaxValue || length > Int.MaxValue || offset < 0 || length < 0 || offset + length > tailStart + tail.limit())
+      throw new ZipException(s"invalid central directory in $path")
+    (offset, length, count.toInt)
+  }
+
+  /** The `count` entries of the central directory starting at `start` in `buf` */
+  private def decodeEntries(path: Path, buf: ByteBuffer, start: Int, count: Int): Array[Entry] = {
+    val entries = new Array[Entry](count)
+    var pos = start
+    var i = 0
+    while (i < entries.length) {
+      if (buf.getInt(pos) != CentralHeaderSignature)
+        throw new ZipException(s"invalid central directory header in $path")
+      val method = u16(buf, pos + 10)
+      val dosTime = buf.getInt(pos + 12)
+      var compressedSize = u32(buf, pos + 20)
+      var size = u32(buf, pos + 24)
+      val nameLength = u16(buf, pos + 28)
+      val extraLength = u16(buf, pos + 30)
+      val commentLength = u16(buf, pos + 32)
+      var headerOffset = u32(buf, pos + 42)
+      val nameBytes = new Array[Byte](nameLength)
+      buf.get(pos + CentralHeaderSize, nameBytes)
+
+      if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || headerOffset == 0xFFFFFFFFL) {
+        // the actual values are in the zip64 extra field, in this order, for the fields that overflowed
+        var extra = pos + CentralHeaderSize + nameLength
+        val extraEnd = extra + extraLength
+        while (extra + 4 <= extraEnd) {
+          val tag = u16(buf, extra)
+          val dataSize = u16(buf, extra + 2)
+          if (tag == 0x0001) {
+            var field = extra + 4
+            if (size == 0xFFFFFFFFL) { size = buf.getLong(field); field += 8 }
+            if (compressedSize == 0xFFFFFFFFL) { compressedSize = buf.getLong(field); field += 8 }
+            if (headerOffset == 0xFFFFFFFFL) headerOffset = buf.getLong(field)
+          }
+          extra += 4 + dataSize
+        }
+      }
+      if (size > Int.MaxValue || compressedSize > Int.MaxValue || headerOffset > Int.MaxValue)
+        throw new ZipException(s"entry too large in $path")
+
+      entries(i) = new Entry(new String(nameBytes, UTF_8), method, dosTime, compressedSize.toInt, size.toInt, headerOffset.toInt)
+      pos += CentralHeaderSize + nameLength + extraLength + commentLength
+      i += 1
+    }
+    entries
+  }
+
+  /** The position of the end of central directory record, which is followed by a comment of at most 64K */
+  private def findEnd(path: Path, buf: ByteBuffer): Int = {
+    var pos = buf.limit() - EndSize
+    val min = math.max(0, pos - 0xFFFF)
+    while (pos >= min) {
+      if (buf.getInt(pos) == EndSignature && pos + EndSize + u16(buf, pos + 20) == buf.limit()) return pos
+      pos -= 1
+    }
+    throw new ZipException(s"zip END header not found in $path")
+  }
+
+  private def u16(buf: ByteBuffer, pos: Int): Int = buf.getShort(pos) & 0xFFFF
+  private def u32(buf: ByteBuffer, pos: Int): Long = buf.getInt(pos) & 0xFFFFFFFFL
+
+  private def dosToJavaTime(dosTime: Int): Long =
+    try LocalDateTime.of(
+        ((dosTime >> 25) & 0x7f) + 1980,
+        (dosTime >> 21) & 0x0f,
+        (dosTime >> 16) & 0x1f,
+        (dosTime >> 11) & 0x1f,
+        (dosTime >> 5) & 0x3f,
+        (dosTime << 1) & 0x3e)
+      .atZone(ZoneId.systemDefault).toInstant.toEpochMilli
+    catch { case _: java.time.DateTimeException => 0L }
+}
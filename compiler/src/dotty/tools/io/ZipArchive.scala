@@ -8,8 +8,9 @@ package dotty.tools.io
 import scala.language.unsafeNulls
 
 import java.net.URL
-import java.io.{ IOException, InputStream, OutputStream, FilterInputStream }
-import java.nio.file.Files
+import java.io.{ ByteArrayInputStream, FileNotFoundException, IOException, InputStream, OutputStream, FilterInputStream }
+import java.nio.channels.{ ClosedByInterruptException, ClosedChannelException, FileChannel }
+import java.nio.file.{ Files, StandardOpenOption }
 import java.util.zip.{ ZipEntry, ZipFile }
 import java.util.jar.{ Manifest, JarFile }
 import scala.collection.mutable
@@ -110,6 +111,10 @@ abstract class ZipArchive(override val jpath: JPath, release: Option[String]) ex
     else ensureDir(dirs, dirName(entry.getName))
   }
 
+  /** The directory of the file entry named `fileName` */
+  protected def getDir(dirs: mutable.Map[String, DirEntry], fileName: String): DirEntry =
+    ensureDir(dirs, dirName(fileName))
+
   def close(): Unit
 }
 /** ''Note:  This library is considered experimental and should not be used unless you know what you are doing.'' */
@@ -157,9 +162,157 @@ final class FileZipArchive(jpath: JPath, release: Option[String]) extends ZipArc
     override def sizeOption: Option[Int] = Some(zipEntry.getSize.toInt)
   }
 
+  // Like `LeakyEntry`, keeps the archive mapped until it is closed,
+  // but entries are read without going through a ZipFile and an InflaterInputStream.
+  private class MappedEntry(
+    zipFile: MappedZipFile,
+    zipEntry: MappedZipFile.Entry,
+    parent: DirEntry
+  ) extends Entry(zipEntry.name, parent) {
+    override def lastModified: Long = zipEntry.lastModified
+    override def input: InputStream = new ByteArrayInputStream(toByteArray)
+    override def toByteArray: Array[Byte] =
+      try zipFile.read(zipEntry)
+      catch { case _: IOException => readWithZipFile(zipEntry.name) } // the archive changed or was closed
+    override def sizeOption: Option[Int] = Some(zipEntry.size)
+  }
+
+  /** The archive mapped in memory, or `null` if it must be read with a `ZipFile`: if mapping is not enabled
+   *  for it (see `MappedZipFile.shouldMap`), if a `-release` is selected, which requires the multi-release
+   *  support of `JarFile`, if zip files must be closed after use, or if the archive cannot be mapped.
+   */
+  private lazy val mappedZipFile: MappedZipFile =
+    if (release.isDefined || ZipArchive.closeZipFile || !MappedZipFile.shouldMap(jpath)) null
+    else
+      try {
+        val mapped = MappedZipFile.open(jpath)
+        closeables ::= mapped
+        mapped
+      }
+      catch { case _: IOException => null }
+
+  /** The content of the file entry `name`, read with a `ZipFile` that is closed right away */
+  private def readWithZipFile(name: String): Array[Byte] = {
+    val zipFile = openZipFile()
+    try {
+      val entry = zipFile.getEntry(name)
+      if (entry == null) throw new FileNotFoundException(s"$name in $path")
+      val in = zipFile.getInputStream(entry)
+      try in.readAllBytes() finally in.close()
+    }
+    finally zipFile.close()
+  }
+
+  // handles opened on the first read of an entry built from the index,
+  // shared by all of them in the same way as for `LeakyEntry`
+  private lazy val indexedZipFile: ZipFile = {
+    val zipFile = openZipFile()
+    closeables ::= zipFile
+    zipFile
+  }
+  // not a `lazy val`: a `FileChannel` is closed when a thread reading from it is interrupted,
+  // so it is reopened by the next read
+  @volatile private var indexedChannel: FileChannel = null
+  private def openIndexedChannel(): FileChannel = synchronized {
+    var channel = indexedChannel
+    if (channel == null || !channel.isOpen) {
+      channel = FileChannel.open(jpath, StandardOpenOption.READ)
+      closeables ::= channel
+      indexedChannel = channel
+    }
+    channel
+  }
+
+  // Read at the offset recorded in the index if it is known, without decoding the central directory
+  private class IndexedZipEntry(
+    indexed: ZipArchiveIndex.IndexedEntry,
+    parent: DirEntry
+  ) extends Entry(indexed.name, parent) {
+    override def lastModified: Long = indexed.time // could be stale
+    override def input: InputStream =
+      if (indexed.headerOffset >= 0) new ByteArrayInputStream(toByteArray)
+      else {
+        val zipFile = indexedZipFile
+        zipFile.getInputStream(zipFile.getEntry(indexed.name))
+      }
+    override def toByteArray: Array[Byte] =
+      if (indexed.headerOffset >= 0) readAtOffset(retry = true)
+      else super.toByteArray
+    private def readAtOffset(retry: Boolean): Array[Byte] =
+      try MappedZipFile.readEntry(openIndexedChannel(), jpath, indexed.name, indexed.method, indexed.headerOffset, indexed.compressedSize, indexed.size)
+      catch {
+        case ex: ClosedByInterruptException => throw ex // this thread was interrupted, let the cancellation through
+        case _: ClosedChannelException if retry => readAtOffset(retry = false) // another thread was interrupted while reading
+        case _: IOException => readWithZipFile(indexed.name) // the archive changed or was closed
+      }
+    override def sizeOption: Option[Int] = Some(indexed.size) // could be stale
+  }
+
   lazy val (root, allDirs): (DirEntry, collection.Map[String, DirEntry]) = {
     val root = new DirEntry("/", null)
     val dirs = mutable.HashMap[String, DirEntry]("/" -> root)
+    val indexDir = ZipArchiveIndex.directory
+    indexDir.flatMap(ZipArchiveIndex.load(_, jpath, release)) match {
+      case Some(indexed) => fillFromIndex(dirs, indexed)
+      case None =>
+        val recorded = indexDir.map(_ => mutable.ArrayBuffer.empty[ZipArchiveIndex.IndexedEntry])
+        val mapped = mappedZipFile
+        if (mapped != null) fillFromMappedZipFile(dirs, mapped, recorded)
+        else if (recorded.isEmpty || !fillFromCentralDirectory(dirs, recorded.get)) fillFromZipFile(dirs, recorded)
+        for (dir <- indexDir; entries <- recorded) ZipArchiveIndex.store(dir, jpath, release, entries)
+    }
+    (root, dirs)
+  }
+
+  private def fillFromMappedZipFile(dirs: mutable.Map[String, DirEntry], mapped: MappedZipFile, recorded: Option[mutable.Buffer[ZipArchiveIndex.IndexedEntry]]): Unit =
+    for (zipEntry <- mapped.entries)
+      if (!zipEntry.isDirectory && !zipEntry.name.startsWith("META-INF/versions/")) {
+        val dir = getDir(dirs, zipEntry.name)
+        val f = new MappedEntry(mapped, zipEntry, dir)
+        dir.entries(f.name) = f
+        for (buf <- recorded)
+          buf += indexedEntry(zipEntry)
+      }
+
+  private def indexedEntry(zipEntry: MappedZipFile.Entry): ZipArchiveIndex.IndexedEntry =
+    new ZipArchiveIndex.IndexedEntry(zipEntry.name, zipEntry.lastModified, zipEntry.size, zipEntry.method, zipEntry.compressedSize, zipEntry.headerOffset)
+
+  /** Read the entries from the central directory with positional reads, so that their offsets can be
+   *  recorded in `recorded`, unless a `-release` is selected or zip files must be closed after use.
+   *  @return  whether the central directory could be read
+   */
+  private def fillFromCentralDirectory(dirs: mutable.Map[String, DirEntry], recorded: mutable.Buffer[ZipArchiveIndex.IndexedEntry]): Boolean =
+    !release.isDefined && !ZipArchive.closeZipFile && {
+      val entries =
+        try MappedZipFile.readEntries(jpath)
+        catch {
+          case ex: ClosedByInterruptException => throw ex
+          case _: IOException => null
+        }
+      entries != null && {
+        for (zipEntry <- entries)
+          if (!zipEntry.isDirectory && !zipEntry.name.startsWith("META-INF/versions/")) {
+            val indexed = indexedEntry(zipEntry)
+            val dir = getDir(dirs, zipEntry.name)
+            val f = new IndexedZipEntry(indexed, dir)
+            dir.entries(f.name) = f
+            recorded += indexed
+          }
+        true
+      }
+    }
+
+  private def fillFromIndex(dirs: mutable.Map[String, DirEntry], indexed: Array[ZipArchiveIndex.IndexedEntry]): Unit =
+    for (entry <- indexed) {
+      val dir = getDir(dirs, entry.name)
+      val f =
+        if (ZipArchive.closeZipFile) new LazyEntry(entry.name, entry.time, entry.size, dir)
+        else new IndexedZipEntry(entry, dir)
+      dir.entries(f.name) = f
+    }
+
+  /** Read the entries from the central directory of the zip file, recording them in `recorded` if defined */
+  private def fillFromZipFile(dirs: mutable.Map[String, DirEntry], recorded: Option[mutable.Buffer[ZipArchiveIndex.IndexedEntry]]): Unit = {
     val zipFile = openZipFile()
     val entries = zipFile.entries()
 
@@ -186,6 +339,9 @@ final class FileZipArchive(jpath: JPath, release: Option[String]) extends ZipArc
                 new LeakyEntry(zipFile, zipEntryVersioned, dir)
 
             dir.entries(f.name) = f
+            for (buf <- recorded)
+              buf += new ZipArchiveIndex.IndexedEntry(zipEntry.getName, zipEntryVersioned.getTime, zipEntryVersioned.getSize.toInt,
+                zipEntryVersioned.getMethod, zipEntryVersioned.getCompressedSize.toInt, headerOffset = -1)
           }
         }
       }
@@ -193,7 +349,6 @@ final class FileZipArchive(jpath: JPath, release: Option[String]) extends ZipArc
       if (ZipArchive.closeZipFile) zipFile.close()
       else closeables ::= zipFile
     }
-    (root, dirs)
   }
 
   def iterator: Iterator[Entry] = root.iterator
@@ -0,0 +1,124 @@
+package dotty.tools.io
+
+import scala.language.unsafeNulls
+
+import java.io.{ByteArrayOutputStream, DataOutputStream, IOException}
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.{Files, Path, Paths, StandardCopyOption, StandardOpenOption}
+import java.nio.file.attribute.BasicFileAttributes
+import java.security.MessageDigest
+
+/** A persistent index of the entries of a zip or jar file, shared by all the compiler processes on a machine.
+ *
+ *  Opening a jar with `java.util.zip.ZipFile` reads and decodes its whole central directory, which each
+ *  short-lived compiler process does again for every jar on its classpath. When the `scala.classpath.indexDir`
+ *  system property names a directory, `FileZipArchive` instead builds its directory tree from an index file
+ *  stored there: the name, time, size and location of every file entry, in a compact binary form that is read
+ *  through a memory mapping. The jar itself is then only opened once one of its entries is actually read, and
+ *  that entry is read directly at its recorded offset (see `MappedZipFile.readEntry`), without decoding the
+ *  central directory.
+ *
+ *  An index records the size, modification time and file key of the jar it was built from, and is ignored,
+ *  then rebuilt, when any of them changed. Indexes are written to a temporary file and atomically moved into
+ *  place, so that concurrent processes never see a partial index. Failing to read or write an index is not
+ *  an error: the jar is read directly as if indexing was disabled.
+ */
+object ZipArchiveIndex {
+  /** A file entry of an indexed archive, with the compression `method`, `compressedSize` and `headerOffset`
+   *  recorded in the central directory. `headerOffset` is -1 if it is not known, when the archive was read with
+   *  a `ZipFile`, and the entry must then be read with a `ZipFile` too.
+   */
+  final class IndexedEntry(val name: String, val time: Long, val size: Int, val method: Int, val compressedSize: Int, val headerOffset: Int)
+
+  val directory: Option[Path] =
+    sys.props.get("scala.classpath.indexDir").filter(_.nonEmpty).map(Paths.get(_))
+
+  private final val Magic = 0x53434958 // "SCIX"
+  private final val FormatVersion = 2
+
+  /** The entries of `jar` recorded in `dir`, or `None` if there is no up-to-date index for it */
+  def load(dir: Path, jar: Path, release: Option[String]): Option[Array[IndexedEntry]] =
+    try {
+      val indexFile = indexPath(dir, jar, release)
+      if (!Files.isRegularFile(indexFile)) None
+      else {
+        val channel = FileChannel.open(indexFile, StandardOpenOption.READ)
+        val buf =
+          try channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size)
+          finally channel.close()
+        if (buf.getInt != Magic || buf.getInt != FormatVersion || readString(buf) != stampOf(jar, release)) None
+        else {
+          val entries = new Array[IndexedEntry](buf.getInt)
+          var i = 0
+          while (i < entries.length) {
+            val name = readString(buf)
+            val time = buf.getLong
+            val size = buf.getInt
+            val method = buf.getInt
+            val compressedSize = buf.getInt
+            entries(i) = new IndexedEntry(name, time, size, method, compressedSize, buf.getInt)
+            i += 1
+          }
+          Some(entries)
+        }
+      }
+    } catch {
+      case _: IOException | _: RuntimeException => None
+    }
+
+  /** Record `entries` as the index of `jar` in `dir`. Best effort: failures are ignored. */
+  def store(dir: Path, jar: Path, release: Option[String], entries: collection.Seq[IndexedEntry]): Unit =
+    try {
+      val bytes = new ByteArrayOutputStream(64 + entries.length * 60)
+      val out = new DataOutputStream(bytes)
+      out.writeInt(Magic)
+      out.writeInt(FormatVersion)
+      writeString(out, stampOf(jar, release))
+      out.writeInt(entries.length)
+      for (entry <- entries) {
+        writeString(out, entry.name)
+        out.writeLong(entry.time)
+        out.writeInt(entry.size)
+        out.writeInt(entry.method)
+        out.writeInt(entry.compressedSize)
+        out.writeInt(entry.headerOffset)
+      }
+      out.close()
+
+      Files.createDirectories(dir)
+      val tmp = Files.createTempFile(dir, jar.getFileName.toString, ".tmp")
+      try {
+        Files.write(tmp, bytes.toByteArray)
+        Files.move(tmp, indexPath(dir, jar, release), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING)
+      } finally Files.deleteIfExists(tmp)
+    } catch {
+      case _: IOException | _: RuntimeException =>
+    }
+
+  /** What identifies the version of `jar` an index was built from */
+  private def stampOf(jar: Path, release: Option[String]): String = {
+    val attrs = Files.readAttributes(jar, classOf[BasicFileAttributes])
+    s"${jar.toAbsolutePath}|${release.getOrElse("")}|${attrs.size}|${attrs.lastModifiedTime.toMillis}|${attrs.fileKey}"
+  }
+
+  private def indexPath(dir: Path, jar: Path, release: Option[String]): Path = {
+    val digest = MessageDigest.getInstance("SHA-1")
+      .digest(s"${jar.toAbsolutePath}\u0000${release.getOrElse("")}".getBytes(UTF_8))
+    val hash = digest.iterator.take(8).map(b => f"${b & 0xff}%02x").mkString
+    dir.resolve(s"${jar.getFileName}-$hash.idx")
+  }
+
+  private def writeString(out: DataOutputStream, s: String): Unit = {
+    val bytes = s.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(buf: ByteBuffer): String = {
+    val bytes = new Array[Byte](buf.getInt)
+    buf.get(bytes)
+    new String(bytes, UTF_8)
+  }
+}
@@ -0,0 +1,50 @@
+package dotty.tools.dotc.classpath
+
+import scala.language.unsafeNulls
+
+import org.junit.Assert._
+import org.junit.Test
+import java.nio.file._
+
+import dotty.tools.dotc.core.Contexts.{Context, ContextBase}
+import dotty.tools.io.AbstractFile
+
+class AggregateClassPathTest {
+  @Test def cachedListingOfArchivePackages(): Unit = {
+    val jar = Files.createTempFile("test-", ".jar")
+    Files.delete(jar)
+    val dir = Files.createTempDirectory("test-")
+
+    given Context = new ContextBase().initialCtx
+    try {
+      val factory = new ZipAndJarFileLookupFactoryTest
+      factory.createZip(jar, Array(), "p1/C.class")
+      factory.createZip(jar, Array(), "p2/X.class")
+      Files.createDirectories(dir.resolve("p2"))
+      Files.write(dir.resolve("p2/Y.class"), Array[Byte]())
+
+      val jarCp = ZipAndJarClassPathFactory.create(AbstractFile.getFile(jar))
+      val cp = AggregateClassPath(Seq(jarCp, ClassPathFactory.newClassPath(AbstractFile.getFile(dir))))
+
+      // `p2` is also in the directory, which may change between two listings
+      assertEquals(Set("X", "Y"), cp.list("p2").classesAndSources.map(_.name).toSet)
+      Files.write(dir.resolve("p2/Z.class"), Array[Byte]())
+      assertEquals(Set("X", "Y", "Z"), cp.list("p2").classesAndSources.map(_.name).toSet)
+
+      // `p1` is only found in the jar when it is first listed, but the directory is listed again
+      assertEquals(List("C"), cp.list("p1").classesAndSources.map(_.name).toList)
+      Files.createDirectories(dir.resolve("p1"))
+      Files.write(dir.resolve("p1/D.class"), Array[Byte]())
+      assertEquals(Set("C", "D"), cp.list("p1").classesAndSources.map(_.name).toSet)
+
+      // without directories, the merged listing is computed once
+      val archivesOnly = AggregateClassPath(Seq(jarCp, jarCp))
+      val p1 = archivesOnly.list("p1")
+      assertEquals(List("C"), p1.classesAndSources.map(_.name).toList)
+      assertSame(p1, archivesOnly.list("p1"))
+    } finally {
+      Files.delete(jar)
+      for (name <- List("p1/D.class", "p1", "p2/Y.class", "p2/Z.class", "p2", "")) Files.deleteIfExists(dir.resolve(name))
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package dotty.tools.dotc.core
+
+import dotty.tools.dotc.core.Contexts.Context
+import dotty.tools.dotc.core.Names.termName
+import dotty.tools.dotc.core.Symbols.*
+
+import org.junit.Assert._
+import org.junit.Test
+
+import dotty.tools.DottyTest
+
+class MemberCacheTest extends DottyTest {
+
+  /** A member entered in a base class is seen by the subclasses that already looked it up in the same
+   *  period, even when they went through the cached non-private members of an intermediate class.
+   */
+  @Test
+  def memberEnteredInGrandparent: Unit =
+    val source =
+      """package membercache
+        |class G
+        |class P extends G { private def x: Int = 1 }
+        |class C extends P
+        |""".stripMargin
+    checkCompile("typer", source) { (_, context) =>
+      given Context = context
+      val g = requiredClass("membercache.G")
+      val c = requiredClass("membercache.C")
+      val x = termName("x")
+      assertFalse(c.classDenot.nonPrivateMembersNamed(x).exists)
+      assertFalse(c.classDenot.membersNamed(x).exists)
+
+      g.classDenot.enter(newSymbol(g, x, Flags.EmptyFlags, defn.IntType))
+      assertTrue(c.classDenot.nonPrivateMembersNamed(x).exists)
+      assertTrue(c.classDenot.membersNamed(x).exists)
+    }
+}
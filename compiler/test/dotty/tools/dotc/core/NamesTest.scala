@@ -0,0 +1,32 @@
+package dotty.tools.dotc.core
+
+import dotty.tools.dotc.core.Names.{termName, EmptyTermName}
+
+import org.junit.Test
+import org.junit.Assert.*
+
+class NamesTest:
+  @Test def internsEqualNames: Unit =
+    assertSame(EmptyTermName, termName(""))
+    assertSame(termName("interned"), termName("interned".toCharArray.nn, 0, 8))
+    assertSame(termName("in"), termName("interned").take(2))
+
+  @Test def longNames: Unit =
+    val long = "x" * (Names.ChunkSize + 10)
+    val name = termName(long)
+    assertSame(name, termName(long))
+    assertEquals(long, name.toString)
+    assertEquals(long.take(20), name.take(20).toString)
+
+  @Test def concurrentInterning: Unit =
+    val names = (0 until 2000).map(i => s"concurrent$i")
+    val results = new Array[IndexedSeq[Names.SimpleName]](8)
+    val threads = (0 until results.length).map: t =>
+      new Thread(() => results(t) = (if t % 2 == 0 then names else names.reverse).map(termName))
+    threads.foreach(_.start())
+    threads.foreach(_.join())
+    val expected = names.map(termName)
+    for (result, t) <- results.zipWithIndex do
+      val inOrder = if t % 2 == 0 then result else result.reverse
+      assertTrue(inOrder.corresponds(expected)(_ eq _))
+    assertEquals(names, expected.map(_.toString))
@@ -0,0 +1,42 @@
+package dotty.tools
+package dotc
+package core
+
+import Contexts.*, Decorators.*, Flags.*, Names.*, Scopes.*, Symbols.*, Types.*
+
+import org.junit.Test
+import org.junit.Assert.*
+
+class ScopesTest extends DottyTest:
+
+  private def newVal(name: String): Symbol =
+    newSymbol(defn.RootClass, termName(name), EmptyFlags, defn.IntType)
+
+  @Test def lookupInLargeScope: Unit =
+    val scope = newScope
+    val syms = (0 until 200).map(i => scope.enter(newVal(s"member$i")))
+    // repeated lookups build the name index of the scope
+    for _ <- 1 to 3; sym <- syms do
+      assertEquals(sym, scope.lookup(sym.name))
+    assertEquals(NoSymbol, scope.lookup(termName("missing")))
+
+    val overloaded = scope.enter(newSymbol(defn.RootClass, syms(7).name, Method, defn.IntType))
+    assertEquals(overloaded, scope.lookup(syms(7).name))
+    assertEquals(List(overloaded, syms(7)), scope.lookupAll(syms(7).name).toList)
+
+    scope.unlink(syms(3))
+    for _ <- 1 to 40 do assertEquals(NoSymbol, scope.lookup(syms(3).name))
+    assertEquals(syms(4), scope.lookup(syms(4).name))
+    scope.checkConsistent()
+
+  @Test def findAndExists: Unit =
+    val scope = newScope
+    val syms = (0 until 10).map(i => scope.enter(newVal(s"elem$i")))
+    assertEquals(syms(2), scope.find(_.name.toString.endsWith("2")))
+    assertEquals(syms(0), scope.find(_.name.toString.length == 5))
+    assertEquals(NoSymbol, scope.find(_ => false))
+    assertTrue(scope.exists(_ eq syms(9)))
+    assertFalse(scope.exists(_ => false))
+    var entered = List.empty[Symbol]
+    scope.foreachEntry(e => entered = e.sym :: entered)
+    assertEquals(syms.toList, entered)
@@ -0,0 +1,36 @@
+package dotty.tools.dotc.profile
+
+import org.junit.Assert.*
+import org.junit.*
+
+class AllocationReportTest:
+  @Test def parseHistogram(): Unit =
+    val histogram =
+      """|
+         | num     #instances         #bytes  class name (module)
+         |-------------------------------------------------------
+         |   1:        120000        9600000  dotty.tools.dotc.core.Types$CachedTypeRef
+         |   2:         50000        4000000  dotty.tools.dotc.ast.Trees$Ident
+         |   3:         10000         800000  [B (java.base@17)
+         |   4:          2000         160000  dotty.tools.dotc.core.Names$SimpleName
+         |Total        182000       14560000
+         |""".stripMargin
+    val entries = AllocationReport.parseHistogram(histogram)
+    assertEquals(4, entries.length)
+    assertEquals(AllocationReport.HistogramEntry("dotty.tools.dotc.core.Types$CachedTypeRef", 120000, 9600000), entries.head)
+    assertEquals(List("types", "trees", "other", "names"), entries.map(_.category))
+
+  @Test def render(): Unit =
+    val report = new AllocationReport
+    report.addPhase("typer", 300L << 20)
+    report.addPhase("erasure", 100L << 20)
+    report.addUnit("typer", "A.scala", 200L << 20)
+    report.addUnit("typer", "B.scala", 100L << 20)
+    report.addUnit("erasure", "A.scala", 100L << 20)
+    report.addDefinition("p.A", 150L << 20)
+    report.addHistogram("typer", List(AllocationReport.HistogramEntry("dotty.tools.dotc.core.Names$SimpleName", 10, 1L << 20)))
+    val lines = report.render(top = 10).linesIterator.map(_.trim).toList
+    assertTrue(lines.toString, lines.containsSlice(List("Allocated by phase", "300.0 MB  typer", "100.0 MB  erasure")))
+    assertTrue(lines.toString, lines.containsSlice(List("Allocated by compilation unit", "300.0 MB  A.scala", "100.0 MB  B.scala")))
+    assertTrue(lines.toString, lines.contains("150.0 MB  p.A"))
+    assertTrue(lines.toString, lines.contains("Live compiler data structures after typer"))
@@ -10,12 +10,15 @@ import java.util.concurrent.locks.LockSupport
 import scala.concurrent.duration.*
 
 class ChromeTraceTest:
-  private def testTraceOutputs(generator: ChromeTrace => Unit)(checkContent: PartialFunction[List[String], Unit]): Unit = {
+  private def testTraceOutputs(generator: ChromeTrace => Unit, options: ChromeTrace.Options = ChromeTrace.Options())(checkContent: PartialFunction[List[String], Unit]): Unit = {
     val outfile = Files.createTempFile("trace-", ".json").nn
-    val tracer = new ChromeTrace(outfile)
+    val tracer = new ChromeTrace(outfile, options)
     try generator(tracer)
     finally tracer.close()
-    val contentLines = scala.io.Source.fromFile(outfile.toFile().nn).getLines().toList
+    val in =
+      if options.gzip then new java.util.zip.GZIPInputStream(Files.newInputStream(outfile))
+      else Files.newInputStream(outfile)
+    val contentLines = scala.io.Source.fromInputStream(in.nn, "UTF-8").getLines().toList
     checkContent.applyOrElse(
       contentLines,
       content => fail(s"Invalid output lines: ${content.mkString(System.lineSeparator().nn)}")
@@ -92,6 +95,47 @@ class ChromeTraceTest:
     }
   }
 
+  @Test def dropShortDurationEvents(): Unit = testTraceOutputs({ tracer =>
+    tracer.traceDurationEventStart(cat = "test", name = "long")
+    tracer.traceDurationEventStart(cat = "test", name = "short")
+    tracer.traceDurationEventEnd(cat = "test", name = "short")
+    tracer.traceDurationEventStart(cat = "test", name = "nested")
+    sleep(2.millis)
+    tracer.traceDurationEventEnd(cat = "test", name = "nested")
+    tracer.traceDurationEventEnd(cat = "test", name = "long")
+    tracer.traceDurationEvent(name = "complete", startNanos = 1000L, durationNanos = 500L)
+  }, ChromeTrace.Options(minDurationMicros = 1000)){
+    case """{"traceEvents":[""" ::
+        s"""{"cat":"test","name":"long","ph":"B",$_""" ::
+        s""",{"cat":"test","name":"nested","ph":"B",$_""" ::
+        s""",{"cat":"test","name":"nested","ph":"E",$_""" ::
+        s""",{"cat":"test","name":"long","ph":"E",$_""" ::
+           "]}" :: Nil =>
+  }
+
+  @Test def sampleNestedEvents(): Unit = testTraceOutputs({ tracer =>
+    tracer.traceDurationEventStart(cat = "test", name = "run")
+    tracer.traceDurationEventStart(cat = "test", name = "phase")
+    for i <- 1 to 4 do
+      tracer.traceDurationEventStart(cat = "test", name = s"def$i")
+      tracer.traceDurationEventStart(cat = "test", name = s"implicit$i")
+      tracer.traceDurationEventEnd(cat = "test", name = s"implicit$i")
+      tracer.traceDurationEventEnd(cat = "test", name = s"def$i")
+    tracer.traceDurationEventEnd(cat = "test", name = "phase")
+    tracer.traceDurationEventEnd(cat = "test", name = "run")
+  }, ChromeTrace.Options(sampleEvery = 2, gzip = true)){
+    case lines =>
+      val names = lines.collect { case s"""$_"name":"$name","ph":"B"$_""" => name }
+      assertEquals(List("run", "phase", "def2", "def3", "def4"), names)
+      assertEquals(lines.count(_.contains("\"ph\":\"E\"")), names.length)
+  }
+
+  @Test def runSuffixBeforeExtensions(): Unit = {
+    assertEquals("out/trace.2.json.gz", RealProfiler.insertSuffix("out/trace.json.gz", ".2"))
+    assertEquals("out.d/trace.2", RealProfiler.insertSuffix("out.d/trace", ".2"))
+    assertEquals(".trace.2.json", RealProfiler.insertSuffix(".trace.json", ".2"))
+  }
+
   private def sleep(duration: FiniteDuration): Unit = {
     // A bit of additional precautions to ensure we don't continue execution to early
     // Both LockSuppport and Thread.sleep can return earlier then expected (depending on OS)
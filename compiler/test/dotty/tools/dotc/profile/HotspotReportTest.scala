@@ -0,0 +1,69 @@
+package dotty.tools.dotc.profile
+
+import org.junit.Assert.*
+import org.junit.*
+import java.nio.file.Files
+
+class HotspotReportTest:
+  private def busy(millis: Int): Unit =
+    val deadline = System.nanoTime() + millis * 1000000L
+    while System.nanoTime() < deadline do ()
+
+  @Test def selfAndTotalTime(): Unit =
+    val report = new HotspotReport
+    val outer, inner = new Object
+    report.enter(HotspotReport.Definition, outer, "p.Outer")
+    busy(5)
+    report.enter(HotspotReport.Inline, inner, "p.inlined")
+    busy(10)
+    report.enter(HotspotReport.Inline, inner, "p.inlined") // recursive, not counted twice in the total
+    busy(5)
+    report.exit()
+    report.exit()
+    report.exit()
+
+    val stats = report.summary.stats.map(stat => stat.name -> stat).toMap
+    val outerStat = stats("p.Outer")
+    val innerStat = stats("p.inlined")
+    assertEquals(2, innerStat.count)
+    assertTrue(innerStat.totalNanos >= 15000000L)
+    assertTrue(innerStat.totalNanos < outerStat.totalNanos)
+    assertEquals(innerStat.totalNanos, innerStat.selfNanos)
+    assertTrue(outerStat.selfNanos >= 5000000L)
+    assertTrue(outerStat.selfNanos < 15000000L)
+
+  @Test def jsonRoundTripAndDiff(): Unit =
+    val before = new HotspotReport
+    before.enter(HotspotReport.ImplicitSearch, "a", "p.\"Show\"\\")
+    busy(2)
+    before.exit()
+    before.addPhaseTime(10000000L)
+    val file = Files.createTempFile("hotspots-", ".json").nn
+    before.write(file)
+    val read = HotspotReport.read(file)
+    Files.delete(file)
+    assertEquals(10000000L, read.runNanos)
+    assertEquals(List("p.\"Show\"\\"), read.stats.map(_.name))
+    assertEquals(before.summary.stats.head.selfNanos, read.stats.head.selfNanos)
+
+    val after = new HotspotReport
+    after.enter(HotspotReport.Definition, "b", "p.Slow")
+    busy(5)
+    after.exit()
+    val lines = HotspotReport.diff(read, after.summary, top = 10).linesIterator.toList
+    assertTrue(lines.toString, lines(3).endsWith("p.Slow (definition)"))
+    assertTrue(lines.toString, lines(4).endsWith("p.\"Show\"\\ (implicit search)"))
+
+  @Test def diffAddsUpEntriesWithTheSameName(): Unit =
+    def stat(name: String, selfMillis: Int) =
+      val stat = new HotspotReport.Stat(HotspotReport.Definition, name)
+      stat.count = 1
+      stat.selfNanos = selfMillis * 1000000L
+      stat.totalNanos = stat.selfNanos
+      stat
+    // two overloads of `p.f`
+    val before = HotspotReport.Summary(0L, List(stat("p.f", 3), stat("p.f", 4)))
+    val after = HotspotReport.Summary(0L, List(stat("p.f", 1)))
+    val lines = HotspotReport.diff(before, after, top = 10).linesIterator.toList
+    assertEquals(lines.toString, 4, lines.length)
+    assertEquals(List("7.0", "1.0", "-6.0", "p.f", "(definition)"), lines(3).trim.split(" +").toList)
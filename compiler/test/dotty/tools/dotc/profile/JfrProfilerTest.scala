@@ -0,0 +1,59 @@
+package dotty.tools.dotc.profile
+
+import org.junit.Assert.*
+import org.junit.*
+
+import dotty.tools.DottyTest
+import dotty.tools.dotc.util.SourceFile
+import dotty.tools.dotc.core.Contexts.FreshContext
+import java.nio.file.Files
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordingFile
+
+import scala.jdk.CollectionConverters.*
+
+class JfrProfilerTest extends DottyTest {
+
+  override protected def initializeCtx(fc: FreshContext): Unit = {
+    super.initializeCtx(fc)
+    fc.setSetting(fc.settings.YprofileJfr, true)
+  }
+
+  @Test def phaseAndUnitEvents(): Unit = {
+    val outfile = Files.createTempFile("profile-", ".jfr").nn
+    val recording = new Recording()
+    try
+      for eventClass <- List(classOf[CompilerEvents.PhaseEvent], classOf[CompilerEvents.UnitEvent], classOf[CompilerEvents.ImplicitSearchEvent]) do
+        recording.enable(eventClass).nn.withThreshold(java.time.Duration.ZERO)
+      recording.start()
+      val runCtx = locally:
+        val source = SourceFile.virtual("Jfr.scala", "object Jfr { def f = summon[Ordering[Int]] }")
+        val run = compilerWithChecker("typer") { (_, _) => () }.newRun
+        run.compileSources(List(source))
+        run.runContext
+      assertFalse("compilation failed", runCtx.reporter.hasErrors)
+      recording.stop()
+      recording.dump(outfile)
+    finally recording.close()
+
+    val events = RecordingFile.readAllEvents(outfile).nn.asScala.toList
+    Files.delete(outfile)
+    def named(name: String) = events.filter(_.getEventType.nn.getName == CompilerEvents.Prefix + name)
+
+    val phases = named("Phase").map(_.getString("phase"))
+    assertTrue(phases.toString, phases.contains("typer"))
+    val units = named("Unit").map(event => (event.getString("phase"), event.getString("file")))
+    assertTrue(units.toString, units.contains(("typer", "Jfr.scala")))
+    // nested events are attributed to the unit being compiled
+    val searches = named("ImplicitSearch")
+    assertTrue(searches.nonEmpty)
+    assertTrue(searches.toString, searches.forall(_.getString("file") == "Jfr.scala"))
+    // every unit event is nested in the phase event of the same phase
+    for unit <- named("Unit") do
+      assertTrue(named("Phase").exists { phase =>
+        phase.getString("phase") == unit.getString("phase")
+          && !phase.getStartTime.nn.isAfter(unit.getStartTime)
+          && !phase.getEndTime.nn.isBefore(unit.getEndTime)
+      })
+  }
+}
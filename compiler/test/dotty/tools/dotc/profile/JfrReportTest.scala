@@ -0,0 +1,39 @@
+package dotty.tools.dotc.profile
+
+import org.junit.Assert.*
+import org.junit.*
+import java.nio.file.Files
+import jdk.jfr.Recording
+
+class JfrReportTest:
+  @Test def summarizeRecording(): Unit =
+    val outfile = Files.createTempFile("profile-", ".jfr").nn
+    val recording = new Recording()
+    try
+      recording.enable(classOf[CompilerEvents.UnitEvent]).nn.withThreshold(java.time.Duration.ZERO)
+      recording.enable(classOf[CompilerEvents.InlineEvent]).nn.withThreshold(java.time.Duration.ZERO)
+      recording.start()
+      for file <- List("A.scala", "B.scala", "A.scala") do
+        val event = new CompilerEvents.UnitEvent
+        event.begin()
+        event.phase = "typer"
+        event.file = file
+        val inline = new CompilerEvents.InlineEvent
+        inline.begin()
+        inline.file = file
+        inline.symbol = "scala.compiletime.summonInline"
+        inline.commit()
+        event.commit()
+      recording.stop()
+      recording.dump(outfile)
+    finally recording.close()
+
+    val summary = JfrReport.summarize(List(outfile))
+    assertEquals(Set("A.scala", "B.scala"), summary.units.keySet.toSet)
+    assertEquals(2, summary.units("A.scala").count)
+    assertEquals(3, summary.symbols("Inline")("scala.compiletime.summonInline").count)
+    assertTrue(summary.symbols("Macro").isEmpty)
+    val report = summary.render(top = 10)
+    assertTrue(report, report.contains("Compilation units"))
+    assertTrue(report, report.contains("scala.compiletime.summonInline"))
+    Files.delete(outfile)
@@ -0,0 +1,33 @@
+package dotty.tools.dotc.util
+
+import org.junit.Test
+import org.junit.Assert.*
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import concurrent.Executor
+
+class ExecutorTest:
+
+  @Test def runsOnAllWorkers(): Unit =
+    val executor = Executor[Int](4)
+    executor.start()
+    val futures =
+      try (1 to 100).map(i => executor.schedule(() => i * 2))
+      finally executor.close()
+    assertEquals((1 to 100).map(_ * 2), futures.map(_.force.get))
+
+  @Test def scheduleAfterAllWaitsForEarlierWork(): Unit =
+    val executor = Executor[Int](4)
+    val completed = AtomicInteger()
+    executor.start()
+    val last =
+      try
+        for _ <- 1 to 20 do
+          executor.schedule { () =>
+            Thread.sleep(5)
+            completed.incrementAndGet()
+          }
+        executor.scheduleAfterAll(() => completed.get)
+      finally executor.close()
+    assertEquals(20, last.force.get)
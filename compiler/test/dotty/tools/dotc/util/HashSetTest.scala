@@ -101,6 +101,19 @@ class HashSetTest:
       s2.clear(resetToInitial = false)
       assert(s2.size == 0)
 
+  @Test
+  def clearFor: Unit =
+    class SizedHashSet extends HashSet[Id](initialCapacity = 16):
+      def capacity = table.length
+    val s = SizedHashSet()
+    s.clearFor(100)
+    assert(s.size == 0)
+    val capacity = s.capacity
+    for _ <- 1 to 100 do s += Id()
+    assert(s.size == 100 && s.capacity == capacity) // no growth needed
+    s.clearFor(0)
+    assert(s.size == 0 && s.capacity == 16) // not smaller than the initial capacity
+
   /** the hash set is based on universal equality, i.e. does not use reference equality */
   @Test
   def universalEquality: Unit =
@@ -0,0 +1,36 @@
+package dotty.tools.dotc.util
+
+import org.junit.Test
+import org.junit.Assert.*
+
+class LineIndexTest:
+
+  @Test def linesAndColumns: Unit =
+    val index = LineIndex("ab\ncd\r\nef\rg".toCharArray.nn)
+    assertEquals(4, index.lineCount)
+    assertEquals(List(0, 3, 7, 10, 11), (0 to index.lineCount).map(index.lineStart).toList)
+    assertEquals(0, index.lineOf(2))
+    assertEquals(1, index.lineOf(5)) // the CR of CR LF
+    assertEquals(2, index.lineOf(7, hint = 3))
+    assertEquals(3, index.lineOf(11)) // the end of the source
+    val lc = index.lineColumn(8)
+    assertEquals(2, LineIndex.line(lc))
+    assertEquals(1, LineIndex.column(lc))
+
+  @Test def fromLineSizes: Unit =
+    val content = "first\n\nthird line\nlast"
+    val fromContent = LineIndex(content.toCharArray.nn)
+    val fromSizes = LineIndex.fromLineSizes(content.split("\n", -1).nn.map(_.nn.length))
+    assertEquals(fromContent.lineCount, fromSizes.lineCount)
+    for line <- 0 to fromContent.lineCount do
+      assertEquals(fromContent.lineStart(line), fromSizes.lineStart(line))
+    for offset <- 0 to content.length do
+      assertEquals(fromContent.lineColumn(offset), fromSizes.lineColumn(offset))
+
+  @Test def sourceFile: Unit =
+    val source = SourceFile.virtual("test.scala", "object A:\n  val x = 1\n")
+    val pos = source.atSpan(Spans.Span(12, 21))
+    assertEquals(LineIndex.encode(pos.startLine, pos.startColumn), pos.startLineColumn)
+    assertEquals(LineIndex.encode(pos.endLine, pos.endColumn), pos.endLineColumn)
+    assertEquals(1, LineIndex.line(pos.startLineColumn))
+    assertEquals(2, LineIndex.column(pos.startLineColumn))
@@ -0,0 +1,108 @@
+package dotty.tools.io
+
+import scala.language.unsafeNulls
+
+import java.nio.file.{Files, Path}
+import java.util.concurrent.{Executors, TimeUnit}
+import java.util.jar.{Attributes, JarFile, JarInputStream, Manifest}
+import java.util.zip.{Deflater, ZipException}
+
+import org.junit.Assert._
+import org.junit.Test
+
+import scala.jdk.CollectionConverters._
+import scala.util.Using
+
+class ConcurrentJarWriterTest {
+
+  private def manifest(): Manifest = {
+    val man = new Manifest()
+    man.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0")
+    man.getMainAttributes().put(Attributes.Name.MAIN_CLASS, "p.Main")
+    man
+  }
+
+  private def content(i: Int): Array[Byte] = (s"class $i;" * (i % 50)).getBytes
+
+  private def withJar(test: Path => Unit): Unit = {
+    val f = Files.createTempFile("junit", ".jar")
+    try test(f) finally Files.deleteIfExists(f)
+  }
+
+  private def checkEntries(f: Path, count: Int): Unit = {
+    Using.resource(new JarFile(f.toFile)) { jar =>
+      assertEquals("p.Main", jar.getManifest.getMainAttributes.getValue(Attributes.Name.MAIN_CLASS))
+      assertEquals(count + 1, jar.size)
+      for (i <- 0 until count) {
+        val entry = jar.getEntry(s"p/C$i.class")
+        assertNotNull(entry)
+        assertArrayEquals(content(i), Using.resource(jar.getInputStream(entry))(_.readAllBytes()))
+      }
+    }
+    // JarInputStream only finds the manifest if it is one of the first entries
+    Using.resource(new JarInputStream(Files.newInputStream(f))) { in =>
+      assertNotNull(in.getManifest)
+      var n = 0
+      while (in.getNextJarEntry != null) n += 1
+      assertEquals(count, n)
+    }
+  }
+
+  @Test def concurrentEntries(): Unit = withJar { f =>
+    val writer = new ConcurrentJarWriter(f, manifest(), Deflater.DEFAULT_COMPRESSION)
+    val pool = Executors.newFixedThreadPool(8)
+    try for (i <- 0 until 1000) pool.execute(() => writer.addEntry(s"p/C$i.class", content(i)))
+    finally {
+      pool.shutdown()
+      assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES))
+    }
+    writer.close()
+    checkEntries(f, 1000)
+  }
+
+  @Test def interruptedWriter(): Unit = withJar { f =>
+    val writer = new ConcurrentJarWriter(f, manifest(), Deflater.DEFAULT_COMPRESSION)
+    // an interrupted thread must not prevent the other threads from writing their entries
+    val interrupted = new Thread(() => {
+      Thread.currentThread.interrupt()
+      writer.addEntry("p/C0.class", content(0))
+    })
+    interrupted.start()
+    interrupted.join()
+    for (i <- 1 until 100) writer.addEntry(s"p/C$i.class", content(i))
+    writer.close()
+    checkEntries(f, 100)
+  }
+
+  @Test def storedEntries(): Unit = withJar { f =>
+    val writer = new ConcurrentJarWriter(f, manifest(), Deflater.NO_COMPRESSION)
+    for (i <- 0 until 100) writer.addEntry(s"p/C$i.class", content(i))
+    writer.close()
+    checkEntries(f, 100)
+    Using.resource(new JarFile(f.toFile)) { jar =>
+      for (entry <- jar.entries.asScala) assertEquals(entry.getSize, entry.getCompressedSize)
+    }
+  }
+
+  @Test def zip64EntryCount(): Unit = withJar { f =>
+    val count = 70000
+    val writer = new ConcurrentJarWriter(f, manifest(), Deflater.BEST_SPEED)
+    for (i <- 0 until count) writer.addEntry(s"p/C$i.class", content(i))
+    writer.close()
+    Using.resource(new JarFile(f.toFile)) { jar =>
+      assertEquals(count + 1, jar.size)
+      assertArrayEquals(content(count - 1), Using.resource(jar.getInputStream(jar.getEntry(s"p/C${count - 1}.class")))(_.readAllBytes()))
+    }
+  }
+
+  @Test def duplicateEntry(): Unit = withJar { f =>
+    val writer = new ConcurrentJarWriter(f, manifest(), Deflater.DEFAULT_COMPRESSION)
+    try {
+      writer.addEntry("p/C.class", content(1))
+      writer.addEntry("p/C.class", content(2))
+      fail("duplicate entry was accepted")
+    }
+    catch { case _: ZipException => }
+    finally writer.close()
+  }
+}
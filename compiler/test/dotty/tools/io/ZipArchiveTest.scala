@@ -9,6 +9,7 @@ import java.util.jar.{Attributes, Manifest, JarEntry, JarOutputStream}
 import java.lang.invoke.{MethodHandles, MethodType}
 
 import org.junit.Assert._
+import org.junit.Assume.assumeTrue
 import org.junit.Test
 
 import scala.util.chaining._
@@ -45,6 +46,149 @@ class ZipArchiveTest {
     }
   }
 
+  @Test
+  def mappedEntries(): Unit = {
+    val stored = "hello, world".getBytes
+    val deflated = ("hello, world" * 100).getBytes
+    val f = Files.createTempFile("junit", ".jar").tap { f =>
+      import java.util.zip._
+      Using.resource(new ZipOutputStream(Files.newOutputStream(f))) { zout =>
+        val entry = new ZipEntry("p/stored.class")
+        entry.setMethod(ZipEntry.STORED)
+        entry.setSize(stored.length)
+        entry.setCompressedSize(stored.length)
+        entry.setCrc(new CRC32().tap(_.update(stored, 0, stored.length)).getValue)
+        zout.putNextEntry(entry)
+        zout.write(stored, 0, stored.length)
+        zout.putNextEntry(new ZipEntry("p/deflated.class"))
+        zout.write(deflated, 0, deflated.length)
+        zout.closeEntry()
+      }
+    }
+    try {
+      val mapped = MappedZipFile.open(f)
+      assertEquals(List("p/stored.class", "p/deflated.class"), mapped.entries.toList.map(_.name))
+      assertArrayEquals(stored, mapped.read(mapped.entry("p/stored.class")))
+      assertArrayEquals(deflated, mapped.read(mapped.entry("p/deflated.class")))
+      val view = mapped.view(mapped.entry("p/stored.class"))
+      assertTrue(view.isReadOnly)
+      assertEquals(stored.length, view.remaining)
+      assertNull(mapped.entry("p/missing.class"))
+
+      val archive = new FileZipArchive(f, release = None)
+      val entry = archive.allDirs("p/").lookupName("deflated.class", directory = false)
+      assertArrayEquals(deflated, entry.toByteArray)
+      assertArrayEquals(deflated, Using.resource(entry.input)(_.readAllBytes()))
+      archive.close()
+
+      // a closed mapping can no longer be read
+      mapped.close()
+      try {
+        mapped.read(mapped.entry("p/stored.class"))
+        assert(false)
+      }
+      catch {
+        case ex: IOException =>
+      }
+    }
+    finally {
+      try Files.delete(f) catch case _: IOException => ()
+    }
+  }
+
+  @Test
+  def entriesReadAtOffsets(): Unit = {
+    val jar = createTestJar()
+    try {
+      val mapped = MappedZipFile.open(jar)
+      val entries = MappedZipFile.readEntries(jar)
+      assertEquals(mapped.entries.toList.map(e => (e.name, e.headerOffset)), entries.toList.map(e => (e.name, e.headerOffset)))
+      val entry = entries.find(_.name == "foo.class").get
+      val bytes = Using.resource(java.nio.channels.FileChannel.open(jar)) { channel =>
+        MappedZipFile.readEntry(channel, jar, entry.name, entry.method, entry.headerOffset, entry.compressedSize, entry.size)
+      }
+      assertArrayEquals("hello, world".getBytes, bytes)
+      mapped.close()
+    }
+    finally {
+      try Files.delete(jar) catch case _: IOException => ()
+    }
+  }
+
+  /** An interrupted read closes the channel: `FileZipArchive` must let the exception through and reopen it */
+  @Test
+  def interruptedReadAtOffset(): Unit = {
+    val jar = createTestJar()
+    try {
+      val entry = MappedZipFile.readEntries(jar).find(_.name == "foo.class").get
+      def read(channel: java.nio.channels.FileChannel) =
+        MappedZipFile.readEntry(channel, jar, entry.name, entry.method, entry.headerOffset, entry.compressedSize, entry.size)
+      val channel = java.nio.channels.FileChannel.open(jar)
+      Thread.currentThread.interrupt()
+      try {
+        read(channel)
+        assert(false)
+      }
+      catch {
+        case ex: java.nio.channels.ClosedByInterruptException =>
+      }
+      finally Thread.interrupted()
+      assertFalse(channel.isOpen)
+      assertArrayEquals("hello, world".getBytes, Using.resource(java.nio.channels.FileChannel.open(jar))(read))
+    }
+    finally {
+      try Files.delete(jar) catch case _: IOException => ()
+    }
+  }
+
+  @Test
+  def mappingIsOptIn(): Unit = {
+    assumeTrue(sys.props.get("scala.classpath.mapZip").isEmpty)
+    assertFalse(MappedZipFile.shouldMap(Paths.get("lib.jar")))
+    assertFalse(MappedZipFile.shouldMap(Paths.get(sys.props("user.home"), ".cache", "coursier", "v1", "lib.jar")))
+  }
+
+  @Test
+  def mappedCorruptZip(): Unit = {
+    val f = Files.createTempFile("test", ".jar")
+    try {
+      MappedZipFile.open(f)
+      assert(false)
+    }
+    catch {
+      case ex: IOException =>
+    }
+    finally {
+      Files.delete(f)
+    }
+  }
+
+  @Test
+  def persistentIndex(): Unit = {
+    val jar = createTestJar()
+    val indexDir = Files.createTempDirectory("junit-index")
+    try {
+      assertEquals(None, ZipArchiveIndex.load(indexDir, jar, release = None))
+      val entries = Seq(new ZipArchiveIndex.IndexedEntry("p/foo.class", 42L, 12, 8, 10, 1234))
+      ZipArchiveIndex.store(indexDir, jar, release = None, entries)
+
+      val loaded = ZipArchiveIndex.load(indexDir, jar, release = None).get
+      assertEquals(List(("p/foo.class", 42L, 12, 8, 10, 1234)),
+        loaded.toList.map(e => (e.name, e.time, e.size, e.method, e.compressedSize, e.headerOffset)))
+      // indexes are specific to a release
+      assertEquals(None, ZipArchiveIndex.load(indexDir, jar, release = Some("17")))
+
+      // a modified jar invalidates its index
+      Files.setLastModifiedTime(jar, java.nio.file.attribute.FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis - 10000))
+      assertEquals(None, ZipArchiveIndex.load(indexDir, jar, release = None))
+    }
+    finally {
+      Using.resource(Files.list(indexDir))(_.forEach(Files.delete(_)))
+      Files.delete(indexDir)
+      try Files.delete(jar) catch case _: IOException => ()
+    }
+  }
+
   private val bootClassLoader: ClassLoader = {
     if (!util.Properties.isJavaAtLeast("9")) null
     else {
@@ -20,6 +20,7 @@ call :args %*
 @rem ## Main
 
 call :compilerJavaClasspathArgs
+call :compilerCdsArgs
 
 @rem we need to escape % in the java command path, for some reason this doesnt work in common.bat
 set "_JAVACMD=!_JAVACMD:%%=%%%%!"
@@ -98,6 +99,18 @@ if defined _SCALA_CPATH (
 )
 goto :eof
 
+@rem output parameter: _JAVA_ARGS
+@rem see compilerCdsArgs in libexec/common
+:compilerCdsArgs
+if not defined SCALAC_CDS_ARCHIVE goto :eof
+if exist "%SCALAC_CDS_ARCHIVE%" (
+    set _JAVA_ARGS=!_JAVA_ARGS! "-XX:SharedArchiveFile=%SCALAC_CDS_ARCHIVE%" "-Xshare:auto"
+) else (
+    set _JAVA_ARGS=!_JAVA_ARGS! "-XX:ArchiveClassesAtExit=%SCALAC_CDS_ARCHIVE%"
+)
+set _JAVA_ARGS=!_JAVA_ARGS! "-Xlog:cds=off" "-Xlog:cds+dynamic=off"
+goto :eof
+
 @rem #########################################################################
 @rem ## Cleanups
 
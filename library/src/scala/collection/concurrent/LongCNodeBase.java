@@ -0,0 +1,40 @@
+/*
+ * Scala (https://www.scala-lang.org)
+ *
+ * Copyright EPFL and Lightbend, Inc. dba Akka
+ *
+ * Licensed under Apache License 2.0
+ * (http://www.apache.org/licenses/LICENSE-2.0).
+ *
+ * See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ */
+
+package scala.collection.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+abstract class LongCNodeBase<V> extends LongMainNode<V> {
+
+    private static final VarHandle CSIZE;
+
+    static {
+        try {
+            CSIZE = MethodHandles.lookup().findVarHandle(LongCNodeBase.class, "csize", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public volatile int csize = -1;
+
+    public boolean CAS_SIZE(int oldval, int nval) {
+        return CSIZE.compareAndSet(this, oldval, nval);
+    }
+
+    public int READ_SIZE() {
+        return csize;
+    }
+
+}
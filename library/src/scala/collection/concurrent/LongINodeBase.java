@@ -0,0 +1,46 @@
+/*
+ * Scala (https://www.scala-lang.org)
+ *
+ * Copyright EPFL and Lightbend, Inc. dba Akka
+ *
+ * Licensed under Apache License 2.0
+ * (http://www.apache.org/licenses/LICENSE-2.0).
+ *
+ * See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ */
+
+package scala.collection.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+abstract class LongINodeBase<V> extends BasicNode {
+
+    private static final VarHandle MAINNODE;
+
+    static {
+        try {
+            MAINNODE = MethodHandles.lookup().findVarHandle(LongINodeBase.class, "mainnode", LongMainNode.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public volatile LongMainNode<V> mainnode = null;
+
+    public final Gen gen;
+
+    public LongINodeBase(Gen generation) {
+        gen = generation;
+    }
+
+    public boolean CAS(LongMainNode<V> old, LongMainNode<V> n) {
+        return MAINNODE.compareAndSet(this, old, n);
+    }
+
+    public void WRITE(LongMainNode<V> nval) {
+        MAINNODE.setVolatile(this, nval);
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Scala (https://www.scala-lang.org)
+ *
+ * Copyright EPFL and Lightbend, Inc. dba Akka
+ *
+ * Licensed under Apache License 2.0
+ * (http://www.apache.org/licenses/LICENSE-2.0).
+ *
+ * See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ */
+
+package scala.collection.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+abstract class LongMainNode<V> extends BasicNode {
+
+    private static final VarHandle PREV;
+
+    static {
+        try {
+            PREV = MethodHandles.lookup().findVarHandle(LongMainNode.class, "prev", LongMainNode.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public volatile LongMainNode<V> prev = null;
+
+    public abstract int cachedSize(Object ct);
+
+    public boolean CAS_PREV(LongMainNode<V> oldval, LongMainNode<V> nval) {
+        return PREV.compareAndSet(this, oldval, nval);
+    }
+
+    // the node is published by the CAS that follows, a release write is enough
+    public void WRITE_PREV(LongMainNode<V> nval) {
+        PREV.setRelease(this, nval);
+    }
+
+}
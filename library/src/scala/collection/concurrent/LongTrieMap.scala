@@ -0,0 +1,754 @@
+/*
+ * Scala (https://www.scala-lang.org)
+ *
+ * Copyright EPFL and Lightbend, Inc. dba Akka
+ *
+ * Licensed under Apache License 2.0
+ * (http://www.apache.org/licenses/LICENSE-2.0).
+ *
+ * See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ */
+
+package scala
+package collection
+package concurrent
+
+import scala.language.`2.13`
+import language.experimental.captureChecking
+
+import java.util.concurrent.atomic.AtomicReference
+import scala.{unchecked => uc}
+import scala.annotation.tailrec
+import scala.collection.concurrent.TrieMap.RemovalPolicy
+
+// The nodes of a `LongTrieMap` follow those of `TrieMap`, see there for the details of the algorithm.
+// As the hash of a key is a bijection of the key, two keys with the same hash are equal and
+// there are no list nodes: two different keys are always separated by the time their hashes
+// are consumed, at depth 13.
+
+private[concurrent] final class LongINode[V](bn: LongMainNode[V] | Null, g: Gen) extends LongINodeBase[V](g) {
+  import INodeBase._
+
+  WRITE(bn)
+
+  def this(g: Gen) = this(null, g)
+
+  def GCAS_READ(ct: LongTrieMap[V]): LongMainNode[V] | Null = {
+    val m = /*READ*/mainnode
+    val prevval: LongMainNode[V] | Null = /*READ*/m.prev
+    if (prevval eq null) m
+    else GCAS_Complete(m, ct)
+  }
+
+  @tailrec private def GCAS_Complete(m: LongMainNode[V] | Null, ct: LongTrieMap[V]): LongMainNode[V] | Null = if (m eq null) null else {
+    val prev: LongMainNode[V] | Null = /*READ*/m.prev
+    val ctr = ct.readRoot(abort = true)
+
+    prev match {
+      case null =>
+        m
+      case fn: LongFailedNode[?] => // try to commit to previous value
+        if (CAS(m, fn.prev)) fn.prev
+        else GCAS_Complete(/*READ*/mainnode, ct)
+      case vn: LongMainNode[?] =>
+        if ((ctr.gen eq gen) && ct.nonReadOnly) {
+          // try to commit
+          if (m.CAS_PREV(prev, null)) m
+          else GCAS_Complete(m, ct)
+        } else {
+          // try to abort
+          m.CAS_PREV(prev, new LongFailedNode(vn.asInstanceOf[LongMainNode[V]]))
+          GCAS_Complete(/*READ*/mainnode, ct)
+        }
+    }
+  }
+
+  def GCAS(old: LongMainNode[V], n: LongMainNode[V], ct: LongTrieMap[V]): Boolean = {
+    n.WRITE_PREV(old)
+    if (CAS(old, n)) {
+      GCAS_Complete(n, ct)
+      /*READ*/n.prev eq null
+    } else false
+  }
+
+  private def inode(cn: LongMainNode[V]) = new LongINode[V](cn, gen)
+
+  def copyToGen(ngen: Gen, ct: LongTrieMap[V]) = new LongINode[V](GCAS_READ(ct), ngen)
+
+  /** Inserts a key value pair, overwriting the old pair if the keys match.
+    *
+    *  @return        true if successful, false otherwise
+    */
+  @tailrec def rec_insert(k: Long, v: V, hc: Long, lev: Int, parent: LongINode[V] | Null, startgen: Gen, ct: LongTrieMap[V]): Boolean = {
+    val m = GCAS_READ(ct)
+
+    m match {
+      case cn: LongCNode[V] =>
+        val idx = ((hc >>> lev) & 0x1f).toInt
+        val flag = 1 << idx
+        val bmp = cn.bitmap
+        val pos = Integer.bitCount(bmp & (flag - 1))
+        if ((bmp & flag) != 0) {
+          cn.array(pos) match {
+            case in: LongINode[V] @uc =>
+              if (startgen eq in.gen) in.rec_insert(k, v, hc, lev + 5, this, startgen, ct)
+              else {
+                if (GCAS(cn, cn.renewed(startgen, ct), ct)) rec_insert(k, v, hc, lev, parent, startgen, ct)
+                else false
+              }
+            case sn: LongSNode[V] @uc =>
+              if (sn.k == k) GCAS(cn, cn.updatedAt(pos, new LongSNode(k, v), gen), ct)
+              else {
+                val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
+                val nn = rn.updatedAt(pos, inode(LongCNode.dual(sn, new LongSNode(k, v), hc, lev + 5, gen)), gen)
+                GCAS(cn, nn, ct)
+              }
+            case basicNode => throw new MatchError(basicNode)
+          }
+        } else {
+          val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
+          GCAS(cn, rn.insertedAt(pos, flag, k, v, gen), ct)
+        }
+      case tn: LongTNode[V] =>
+        clean(parent.nn, ct, lev - 5)
+        false
+      case mainNode => throw new MatchError(mainNode)
+    }
+  }
+
+  /** Inserts a new key value pair, given that a specific condition is met.
+    *
+    *  @param cond see `INode.rec_insertif`
+    *
+    *  @return     null if unsuccessful, Option[V] otherwise (indicating previous value bound to the key)
+    */
+  @tailrec def rec_insertif(k: Long, v: V, hc: Long, cond: AnyRef, fullEquals: Boolean, lev: Int, parent: LongINode[V] | Null, startgen: Gen, ct: LongTrieMap[V]): Option[V] | Null = {
+    val m = GCAS_READ(ct)
+
+    m match {
+      case cn: LongCNode[V] =>
+        val idx = ((hc >>> lev) & 0x1f).toInt
+        val flag = 1 << idx
+        val bmp = cn.bitmap
+        val pos = Integer.bitCount(bmp & (flag - 1))
+        if ((bmp & flag) != 0) {
+          cn.array(pos) match {
+            case in: LongINode[V] @uc =>
+              if (startgen eq in.gen) in.rec_insertif(k, v, hc, cond, fullEquals, lev + 5, this, startgen, ct)
+              else {
+                if (GCAS(cn, cn.renewed(startgen, ct), ct)) rec_insertif(k, v, hc, cond, fullEquals, lev, parent, startgen, ct)
+                else null
+              }
+            case sn: LongSNode[V] @uc =>
+              def insertBelow(): Option[V] | Null = {
+                val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
+                val nn = rn.updatedAt(pos, inode(LongCNode.dual(sn, new LongSNode(k, v), hc, lev + 5, gen)), gen)
+                if (GCAS(cn, nn, ct)) None else null
+              }
+              def replace(): Option[V] | Null =
+                if (GCAS(cn, cn.updatedAt(pos, new LongSNode(k, v), gen), ct)) Some(sn.v) else null
+              cond match {
+                case INode.KEY_PRESENT_OR_ABSENT =>
+                  if (sn.k == k) replace() else insertBelow()
+                case INode.KEY_ABSENT =>
+                  if (sn.k == k) Some(sn.v) else insertBelow()
+                case INode.KEY_PRESENT =>
+                  if (sn.k == k) replace() else None
+                case otherv =>
+                  if (sn.k == k && (if (fullEquals) sn.v == otherv else sn.v.asInstanceOf[AnyRef] eq otherv)) replace()
+                  else None
+              }
+            case basicNode => throw new MatchError(basicNode)
+          }
+        } else cond match {
+          case INode.KEY_PRESENT_OR_ABSENT | INode.KEY_ABSENT =>
+            val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
+            if (GCAS(cn, rn.insertedAt(pos, flag, k, v, gen), ct)) None else null
+          case _ => None
+        }
+      case tn: LongTNode[V] =>
+        clean(parent.nn, ct, lev - 5)
+        null
+      case mainNode => throw new MatchError(mainNode)
+    }
+  }
+
+  /** Looks up the value associated with the key.
+    *
+    *  @return          NO_SUCH_ELEMENT_SENTINEL if no value has been found, RESTART if the operation wasn't successful,
+    *                   or any other value otherwise
+    */
+  @tailrec def rec_lookup(k: Long, hc: Long, lev: Int, parent: LongINode[V] | Null, startgen: Gen, ct: LongTrieMap[V]): AnyRef = {
+    val m = GCAS_READ(ct)
+
+    m match {
+      case cn: LongCNode[V] =>
+        val idx = ((hc >>> lev) & 0x1f).toInt
+        val flag = 1 << idx
+        val bmp = cn.bitmap
+        if ((bmp & flag) == 0) NO_SUCH_ELEMENT_SENTINEL
+        else {
+          val pos = if (bmp == 0xffffffff) idx else Integer.bitCount(bmp & (flag - 1))
+          cn.array(pos) match {
+            case in: LongINode[V] @uc =>
+              if (ct.isReadOnly || (startgen eq in.gen)) in.rec_lookup(k, hc, lev + 5, this, startgen, ct)
+              else {
+                if (GCAS(cn, cn.renewed(startgen, ct), ct)) rec_lookup(k, hc, lev, parent, startgen, ct)
+                else RESTART
+              }
+            case sn: LongSNode[V] @uc =>
+              if (sn.k == k) sn.v.asInstanceOf[AnyRef]
+              else NO_SUCH_ELEMENT_SENTINEL
+            case basicNode => throw new MatchError(basicNode)
+          }
+        }
+      case tn: LongTNode[V] @uc =>
+        if (ct.nonReadOnly) {
+          clean(parent.nn, ct, lev - 5)
+          RESTART
+        }
+        else if (tn.k == k) tn.v.asInstanceOf[AnyRef]
+        else NO_SUCH_ELEMENT_SENTINEL
+      case mainNode => throw new MatchError(mainNode)
+    }
+  }
+
+  /** Removes the key associated with the given value.
+    *
+    *  @param removalPolicy policy deciding whether to remove `k` based on `v` and the
+    *                       current value associated with `k` (Always, FullEquals, or ReferenceEq)
+    *
+    *  @return              null if not successful, an Option[V] indicating the previous value otherwise
+    */
+  def rec_remove(k: Long, v: V, removalPolicy: Int, hc: Long, lev: Int, parent: LongINode[V] | Null, startgen: Gen, ct: LongTrieMap[V]): Option[V] | Null =
+    GCAS_READ(ct) match {
+      case cn: LongCNode[V] =>
+        val idx = ((hc >>> lev) & 0x1f).toInt
+        val bmp = cn.bitmap
+        val flag = 1 << idx
+        if ((bmp & flag) == 0) None
+        else {
+          val pos = Integer.bitCount(bmp & (flag - 1))
+          val res = cn.array(pos) match {
+            case in: LongINode[V] @uc =>
+              if (startgen eq in.gen) in.rec_remove(k, v, removalPolicy, hc, lev + 5, this, startgen, ct)
+              else {
+                if (GCAS(cn, cn.renewed(startgen, ct), ct)) rec_remove(k, v, removalPolicy, hc, lev, parent, startgen, ct)
+                else null
+              }
+            case sn: LongSNode[V] @uc =>
+              if (sn.k == k && RemovalPolicy.shouldRemove(removalPolicy)(sn.v, v)) {
+                val ncn = cn.removedAt(pos, flag, gen).toContracted(lev)
+                if (GCAS(cn, ncn, ct)) Some(sn.v) else null
+              } else None
+            case basicNode => throw new MatchError(basicNode)
+          }
+
+          if (res == None || (res eq null)) res
+          else {
+            @tailrec def cleanParent(nonlive: AnyRef | Null): Unit =
+              parent.nn.GCAS_READ(ct) match {
+                case cn: LongCNode[V] @uc =>
+                  val idx = ((hc >>> (lev - 5)) & 0x1f).toInt
+                  val bmp = cn.bitmap
+                  val flag = 1 << idx
+                  if ((bmp & flag) == 0) {} // somebody already removed this i-node, we're done
+                  else {
+                    val pos = Integer.bitCount(bmp & (flag - 1))
+                    if (cn.array(pos) eq this) (nonlive: @uc) match {
+                      case tn: LongTNode[V] @uc =>
+                        val ncn = cn.updatedAt(pos, tn.copyUntombed, gen).toContracted(lev - 5)
+                        if (!parent.nn.GCAS(cn, ncn, ct))
+                          if (ct.readRoot().gen == startgen) cleanParent(nonlive)
+                    }
+                  }
+                case _ => // parent is no longer a cnode, we're done
+              }
+
+            if (parent ne null) { // never tomb at root
+              val n = GCAS_READ(ct)
+              if (n.isInstanceOf[LongTNode[?]]) cleanParent(n)
+            }
+
+            res
+          }
+        }
+      case tn: LongTNode[V] =>
+        clean(parent.nn, ct, lev - 5)
+        null
+      case mainNode => throw new MatchError(mainNode)
+    }
+
+  private def clean(nd: LongINode[V], ct: LongTrieMap[V], lev: Int): Unit =
+    nd.GCAS_READ(ct) match {
+      case cn: LongCNode[V] => nd.GCAS(cn, cn.toCompressed(ct, lev, gen), ct)
+      case _ =>
+    }
+
+  def cachedSize(ct: LongTrieMap[V]): Int = GCAS_READ(ct).nn.cachedSize(ct)
+
+  /* this is a quiescent method! */
+  def string(lev: Int): String = "%sINode -> %s".format("  " * lev, mainnode match {
+    case null => "<null>"
+    case tn: LongTNode[?] => tn.string(0)
+    case cn: LongCNode[?] => cn.string(lev)
+    case x => "<elem: %s>".format(x)
+  })
+}
+
+private[concurrent] object LongINode {
+  def newRootNode[V]: LongINode[V] = {
+    val gen = new Gen
+    new LongINode[V](new LongCNode[V](0, new Array(0), gen), gen)
+  }
+}
+
+private[concurrent] final class LongFailedNode[V](p: LongMainNode[V]) extends LongMainNode[V] {
+  WRITE_PREV(p)
+
+  def string(lev: Int): Nothing = throw new UnsupportedOperationException
+
+  def cachedSize(ct: AnyRef): Int = throw new UnsupportedOperationException
+
+  override def toString(): String = "FailedNode(%s)".format(p)
+}
+
+private[concurrent] final class LongSNode[V](final val k: Long, final val v: V) extends BasicNode {
+  def copyTombed = new LongTNode(k, v)
+  def string(lev: Int): String = ("  " * lev) + "SNode(%d, %s)".format(k, v)
+}
+
+// Tomb Node, used to ensure proper ordering during removals
+private[concurrent] final class LongTNode[V](final val k: Long, final val v: V) extends LongMainNode[V] {
+  def copyUntombed = new LongSNode(k, v)
+  def cachedSize(ct: AnyRef): Int = 1
+  def string(lev: Int): String = ("  " * lev) + "TNode(%d, %s, !)".format(k, v)
+}
+
+private[concurrent] final class LongCNode[V](val bitmap: Int, val array: Array[BasicNode], val gen: Gen) extends LongCNodeBase[V] {
+  // this should only be called from within read-only snapshots
+  def cachedSize(ct: AnyRef): Int = {
+    val currsz = READ_SIZE()
+    if (currsz != -1) currsz
+    else {
+      val sz = computeSize(ct.asInstanceOf[LongTrieMap[V]])
+      while (READ_SIZE() == -1) CAS_SIZE(-1, sz)
+      READ_SIZE()
+    }
+  }
+
+  private def computeSize(ct: LongTrieMap[V]): Int = {
+    var i = 0
+    var sz = 0
+    while (i < array.length) {
+      array(i) match {
+        case sn: LongSNode[?]     => sz += 1
+        case in: LongINode[V] @uc => sz += in.cachedSize(ct)
+        case basicNode            => throw new MatchError(basicNode)
+      }
+      i += 1
+    }
+    sz
+  }
+
+  def updatedAt(pos: Int, nn: BasicNode, gen: Gen) = {
+    val narr = java.util.Arrays.copyOf(array, array.length)
+    narr(pos) = nn
+    new LongCNode[V](bitmap, narr, gen)
+  }
+
+  def removedAt(pos: Int, flag: Int, gen: Gen) = {
+    val len = array.length
+    val narr = new Array[BasicNode](len - 1)
+    System.arraycopy(array, 0, narr, 0, pos)
+    System.arraycopy(array, pos + 1, narr, pos, len - pos - 1)
+    new LongCNode[V](bitmap ^ flag, narr, gen)
+  }
+
+  def insertedAt(pos: Int, flag: Int, k: Long, v: V, gen: Gen) = {
+    val len = array.length
+    val narr = new Array[BasicNode](len + 1)
+    System.arraycopy(array, 0, narr, 0, pos)
+    narr(pos) = new LongSNode(k, v)
+    System.arraycopy(array, pos, narr, pos + 1, len - pos)
+    new LongCNode[V](bitmap | flag, narr, gen)
+  }
+
+  /** Returns a copy of this cnode such that all the i-nodes below it are copied
+    *  to the specified generation `ngen`.
+    */
+  def renewed(ngen: Gen, ct: LongTrieMap[V]) = {
+    var i = 0
+    val len = array.length
+    val narr = new Array[BasicNode](len)
+    while (i < len) {
+      array(i) match {
+        case in: LongINode[V] @uc => narr(i) = in.copyToGen(ngen, ct)
+        case bn: BasicNode        => narr(i) = bn
+      }
+      i += 1
+    }
+    new LongCNode[V](bitmap, narr, ngen)
+  }
+
+  def toContracted(lev: Int): LongMainNode[V] = if (array.length == 1 && lev > 0) array(0) match {
+    case sn: LongSNode[V] @uc => sn.copyTombed
+    case _ => this
+  } else this
+
+  def toCompressed(ct: LongTrieMap[V], lev: Int, gen: Gen) = {
+    var i = 0
+    val tmparray = new Array[BasicNode](array.length)
+    while (i < array.length) {
+      array(i) match {
+        case in: LongINode[V] @uc =>
+          in.GCAS_READ(ct) match {
+            case tn: LongTNode[V] @uc => tmparray(i) = tn.copyUntombed
+            case inodemain =>
+              assert(inodemain ne null)
+              tmparray(i) = in
+          }
+        case sn: LongSNode[V] @uc =>
+          tmparray(i) = sn
+        case basicNode => throw new MatchError(basicNode)
+      }
+      i += 1
+    }
+    new LongCNode[V](bitmap, tmparray, gen).toContracted(lev)
+  }
+
+  def string(lev: Int): String = "CNode %x\n%s".format(bitmap, array.map(_.string(lev + 1)).mkString("\n"))
+}
+
+private[concurrent] object LongCNode {
+  /** A node holding `x` and `y`, whose keys are different, `y` having the hash `yhc` */
+  def dual[V](x: LongSNode[V], y: LongSNode[V], yhc: Long, lev: Int, gen: Gen): LongMainNode[V] = {
+    val xhc = LongTrieMap.hash(x.k)
+    val xidx = ((xhc >>> lev) & 0x1f).toInt
+    val yidx = ((yhc >>> lev) & 0x1f).toInt
+    val bmp = (1 << xidx) | (1 << yidx)
+    if (xidx == yidx) new LongCNode(bmp, Array(new LongINode[V](dual(x, y, yhc, lev + 5, gen), gen)), gen)
+    else if (xidx < yidx) new LongCNode(bmp, Array(x, y), gen)
+    else new LongCNode(bmp, Array(y, x), gen)
+  }
+}
+
+private[concurrent] final class LongRDCSSDescriptor[V](val old: LongINode[V], val expectedmain: LongMainNode[V] | Null, val nv: LongINode[V]) {
+  @volatile var committed = false
+}
+
+/** A concurrent hash-trie with `Long` keys.
+  *
+  *  It is the same lock-free data structure as [[TrieMap]], with the same O(1), atomic and lazily
+  *  evaluated snapshots, but its keys are stored unboxed, and are compared and hashed without going
+  *  through `equals` and `hashCode`. When used through a `LongTrieMap` reference, lookups and updates
+  *  do not box their keys. `Int` keys can be stored as `Long`s.
+  *
+  *  The map returned by `readOnlySnapshot` throws an `UnsupportedOperationException` on updates.
+  */
+final class LongTrieMap[V] private (r: LongINode[V], readOnly: Boolean)
+  extends scala.collection.mutable.AbstractMap[Long, V]
+    with scala.collection.concurrent.Map[Long, V] {
+
+  def this() = this(LongINode.newRootNode[V], readOnly = false)
+
+  private val root = new AtomicReference[AnyRef](r)
+
+  /* internal methods */
+
+  private[concurrent] def readRoot(abort: Boolean = false): LongINode[V] = RDCSS_READ_ROOT(abort)
+
+  private[concurrent] def RDCSS_READ_ROOT(abort: Boolean = false): LongINode[V] =
+    /*READ*/root.get match {
+      case in: LongINode[V] @uc => in
+      case _: LongRDCSSDescriptor[V] @uc => RDCSS_Complete(abort)
+      case x => throw new MatchError(x)
+    }
+
+  @tailrec private def RDCSS_Complete(abort: Boolean): LongINode[V] =
+    /*READ*/root.get match {
+      case in: LongINode[V] @uc => in
+      case desc: LongRDCSSDescriptor[V] @uc =>
+        val ov = desc.old
+        if (abort) {
+          if (root.compareAndSet(desc, ov)) ov
+          else RDCSS_Complete(abort)
+        } else {
+          val oldmain = ov.GCAS_READ(this)
+          if (oldmain eq desc.expectedmain) {
+            if (root.compareAndSet(desc, desc.nv)) {
+              desc.committed = true
+              desc.nv
+            } else RDCSS_Complete(abort)
+          } else {
+            if (root.compareAndSet(desc, ov)) ov
+            else RDCSS_Complete(abort)
+          }
+        }
+      case x => throw new MatchError(x)
+    }
+
+  private def RDCSS_ROOT(ov: LongINode[V], expectedmain: LongMainNode[V] | Null, nv: LongINode[V]): Boolean = {
+    val desc = new LongRDCSSDescriptor(ov, expectedmain, nv)
+    if (root.compareAndSet(ov, desc)) {
+      RDCSS_Complete(abort = false)
+      /*READ*/desc.committed
+    } else false
+  }
+
+  private def checkWritable(): Unit =
+    if (readOnly) throw new UnsupportedOperationException("read-only snapshot of a LongTrieMap")
+
+  @tailrec private def inserthc(k: Long, hc: Long, v: V): Unit = {
+    val r = RDCSS_READ_ROOT()
+    if (!r.rec_insert(k, v, hc, 0, null, r.gen, this)) inserthc(k, hc, v)
+  }
+
+  @tailrec private def insertifhc(k: Long, hc: Long, v: V, cond: AnyRef, fullEquals: Boolean): Option[V] = {
+    val r = RDCSS_READ_ROOT()
+    val ret = r.rec_insertif(k, v, hc, cond, fullEquals, 0, null, r.gen, this)
+    if (ret eq null) insertifhc(k, hc, v, cond, fullEquals)
+    else ret
+  }
+
+  @tailrec private def lookuphc(k: Long, hc: Long): AnyRef = {
+    val r = RDCSS_READ_ROOT()
+    val res = r.rec_lookup(k, hc, 0, null, r.gen, this)
+    if (res eq INodeBase.RESTART) lookuphc(k, hc)
+    else res
+  }
+
+  @tailrec private def removehc(k: Long, v: V, removalPolicy: Int, hc: Long): Option[V] = {
+    val r = RDCSS_READ_ROOT()
+    val res = r.rec_remove(k, v, removalPolicy, hc, 0, null, r.gen, this)
+    if (res ne null) res
+    else removehc(k, v, removalPolicy, hc)
+  }
+
+  def string: String = RDCSS_READ_ROOT().string(0)
+
+  /* public methods */
+
+  def isReadOnly: Boolean = readOnly
+
+  def nonReadOnly: Boolean = !readOnly
+
+  /** Returns a snapshot of this map, see `TrieMap.snapshot`.
+    *  This operation is lock-free and linearizable.
+    */
+  @tailrec def snapshot(): LongTrieMap[V] =
+    if (readOnly) new LongTrieMap(RDCSS_READ_ROOT().copyToGen(new Gen, this), readOnly = false)
+    else {
+      val r = RDCSS_READ_ROOT()
+      val expmain = r.GCAS_READ(this)
+      if (RDCSS_ROOT(r, expmain, r.copyToGen(new Gen, this))) new LongTrieMap(r.copyToGen(new Gen, this), readOnly = false)
+      else snapshot()
+    }
+
+  /** Returns a read-only snapshot of this map, see `TrieMap.readOnlySnapshot`.
+    *  This operation is lock-free and linearizable.
+    */
+  @tailrec def readOnlySnapshot(): LongTrieMap[V] =
+    if (readOnly) this
+    else {
+      val r = RDCSS_READ_ROOT()
+      val expmain = r.GCAS_READ(this)
+      if (RDCSS_ROOT(r, expmain, r.copyToGen(new Gen, this))) new LongTrieMap(r, readOnly = true)
+      else readOnlySnapshot()
+    }
+
+  override def clear(): Unit = {
+    checkWritable()
+    clearRoot()
+  }
+
+  @tailrec private def clearRoot(): Unit = {
+    val r = RDCSS_READ_ROOT()
+    if (!RDCSS_ROOT(r, r.GCAS_READ(this), LongINode.newRootNode[V])) clearRoot()
+  }
+
+  override def apply(k: Long): V = {
+    val res = lookuphc(k, LongTrieMap.hash(k))
+    if (res eq INodeBase.NO_SUCH_ELEMENT_SENTINEL) throw new NoSuchElementException(s"key not found: $k")
+    else res.asInstanceOf[V]
+  }
+
+  def get(k: Long): Option[V] = {
+    val res = lookuphc(k, LongTrieMap.hash(k))
+    if (res eq INodeBase.NO_SUCH_ELEMENT_SENTINEL) None else Some(res.asInstanceOf[V])
+  }
+
+  override def getOrElse[V1 >: V](k: Long, default: => V1): V1 = {
+    val res = lookuphc(k, LongTrieMap.hash(k))
+    if (res eq INodeBase.NO_SUCH_ELEMENT_SENTINEL) default else res.asInstanceOf[V]
+  }
+
+  override def contains(k: Long): Boolean =
+    lookuphc(k, LongTrieMap.hash(k)) ne INodeBase.NO_SUCH_ELEMENT_SENTINEL
+
+  override def put(key: Long, value: V): Option[V] = {
+    checkWritable()
+    insertifhc(key, LongTrieMap.hash(key), value, INode.KEY_PRESENT_OR_ABSENT, fullEquals = false /* unused */)
+  }
+
+  override def update(k: Long, v: V): Unit = {
+    checkWritable()
+    inserthc(k, LongTrieMap.hash(k), v)
+  }
+
+  def addOne(kv: (Long, V)) = {
+    update(kv._1, kv._2)
+    this
+  }
+
+  override def remove(k: Long): Option[V] = {
+    checkWritable()
+    removehc(k, null.asInstanceOf[V], RemovalPolicy.Always, LongTrieMap.hash(k))
+  }
+
+  def subtractOne(k: Long) = {
+    remove(k)
+    this
+  }
+
+  def putIfAbsent(k: Long, v: V): Option[V] = {
+    checkWritable()
+    insertifhc(k, LongTrieMap.hash(k), v, INode.KEY_ABSENT, fullEquals = false /* unused */)
+  }
+
+  /** See `TrieMap.getOrElseUpdate`: `defaultValue` is invoked at most once, but its result may be
+   *  discarded if another thread concurrently adds a value for `k`.
+   */
+  override def getOrElseUpdate(k: Long, defaultValue: => V): V = {
+    val hc = LongTrieMap.hash(k)
+    lookuphc(k, hc) match {
+      case INodeBase.NO_SUCH_ELEMENT_SENTINEL =>
+        checkWritable()
+        val v = defaultValue
+        insertifhc(k, hc, v, INode.KEY_ABSENT, fullEquals = false /* unused */) match {
+          case Some(oldValue) => oldValue
+          case None => v
+        }
+      case oldValue => oldValue.asInstanceOf[V]
+    }
+  }
+
+  def remove(k: Long, v: V): Boolean = {
+    checkWritable()
+    removehc(k, v, RemovalPolicy.FullEquals, LongTrieMap.hash(k)).nonEmpty
+  }
+
+  override private[collection] def removeRefEq(k: Long, v: V): Boolean = {
+    checkWritable()
+    removehc(k, v, RemovalPolicy.ReferenceEq, LongTrieMap.hash(k)).nonEmpty
+  }
+
+  def replace(k: Long, oldvalue: V, newvalue: V): Boolean = {
+    checkWritable()
+    insertifhc(k, LongTrieMap.hash(k), newvalue, oldvalue.asInstanceOf[AnyRef], fullEquals = true).nonEmpty
+  }
+
+  override private[collection] def replaceRefEq(k: Long, oldValue: V, newValue: V): Boolean = {
+    checkWritable()
+    insertifhc(k, LongTrieMap.hash(k), newValue, oldValue.asInstanceOf[AnyRef], fullEquals = false).nonEmpty
+  }
+
+  def replace(k: Long, v: V): Option[V] = {
+    checkWritable()
+    insertifhc(k, LongTrieMap.hash(k), v, INode.KEY_PRESENT, fullEquals = false /* unused */)
+  }
+
+  def iterator: Iterator[(Long, V)] =
+    if (nonReadOnly) readOnlySnapshot().iterator
+    else new LongTrieMapIterator(this)
+
+  // as in `TrieMap`, these need a single coherent view of the data, see scala/bug#10177
+  override def values: Iterable[V] =
+    if (nonReadOnly) readOnlySnapshot().values
+    else super.values
+  override def keySet: Set[Long] =
+    if (nonReadOnly) readOnlySnapshot().keySet
+    else super.keySet
+  override def view: MapView[Long, V] = if (nonReadOnly) readOnlySnapshot().view else super.view
+
+  override def size: Int =
+    if (nonReadOnly) readOnlySnapshot().size
+    else RDCSS_READ_ROOT().cachedSize(this)
+  override def knownSize: Int = if (nonReadOnly) -1 else size
+  override def isEmpty: Boolean = !iterator.hasNext
+  override protected def className = "LongTrieMap"
+}
+
+object LongTrieMap {
+  def empty[V]: LongTrieMap[V] = new LongTrieMap[V]
+
+  def from[V](it: IterableOnce[(Long, V)]^): LongTrieMap[V] = new LongTrieMap[V]() ++= it
+
+  /** The hash of a key, a bijection so that keys with equal hashes are equal (the finalizer of MurmurHash3) */
+  private[concurrent] def hash(k: Long): Long = {
+    var h = k
+    h ^= h >>> 33
+    h *= 0xff51afd7ed558ccdL
+    h ^= h >>> 33
+    h *= 0xc4ceb9fe1a85ec53L
+    h ^= h >>> 33
+    h
+  }
+}
+
+private[concurrent] final class LongTrieMapIterator[V](ct: LongTrieMap[V]) extends AbstractIterator[(Long, V)] {
+  // a hash is consumed after 13 levels of 5 bits
+  private val stack = new Array[Array[BasicNode]](14)
+  private val stackpos = new Array[Int](14)
+  private var depth = -1
+  private var currentKey: Long = 0L
+  private var currentValue: Any = null
+  private var hasCurrent = false
+
+  readin(ct.RDCSS_READ_ROOT())
+
+  def hasNext = hasCurrent
+
+  def next(): (Long, V) =
+    if (hasCurrent) {
+      val r = (currentKey, currentValue.asInstanceOf[V])
+      advance()
+      r
+    } else Iterator.empty.next()
+
+  private def setCurrent(k: Long, v: V): Unit = {
+    currentKey = k
+    currentValue = v
+    hasCurrent = true
+  }
+
+  private def readin(in: LongINode[V]): Unit = in.GCAS_READ(ct) match {
+    case cn: LongCNode[V] =>
+      depth += 1
+      stack(depth) = cn.array
+      stackpos(depth) = -1
+      advance()
+    case tn: LongTNode[V] =>
+      setCurrent(tn.k, tn.v)
+    case null =>
+      hasCurrent = false
+    case mainNode => throw new MatchError(mainNode)
+  }
+
+  @tailrec
+  private def advance(): Unit = if (depth >= 0) {
+    val npos = stackpos(depth) + 1
+    if (npos < stack(depth).length) {
+      stackpos(depth) = npos
+      stack(depth)(npos) match {
+        case sn: LongSNode[V] @uc => setCurrent(sn.k, sn.v)
+        case in: LongINode[V] @uc => readin(in)
+        case basicNode            => throw new MatchError(basicNode)
+      }
+    } else {
+      depth -= 1
+      advance()
+    }
+  } else hasCurrent = false
+}
@@ -17,6 +17,7 @@ package concurrent
 import scala.language.`2.13`
 import language.experimental.captureChecking
 
+import java.util.concurrent.{ForkJoinPool, RecursiveTask}
 import java.util.concurrent.atomic._
 import scala.{unchecked => uc}
 import scala.annotation.tailrec
@@ -1000,6 +1001,45 @@ final class TrieMap[K, V] private (r: AnyRef, rtupd: AtomicReferenceFieldUpdater
     else new TrieMapIterator(0, this)
   }
 
+  ////////////////////////////////////////////////////////////////////////////
+  //
+  // Parallel bulk operations. They traverse a read-only snapshot, which is
+  // split along the branches of the trie into tasks that run on a fork-join
+  // pool, so concurrent updates of this map neither block nor disturb them.
+  // The functions they take are called from several threads at once.
+
+  private def readOnlyTrie: TrieMap[K, V] =
+    if (nonReadOnly) readOnlySnapshot().asInstanceOf[TrieMap[K, V]] else this
+
+  /** Applies `f` to all the entries of a read-only snapshot of this map, in parallel.
+   *
+   *  @param f    the function to apply, which must be thread-safe
+   *  @param pool the pool on which the traversal runs
+   */
+  def parForeach[U](f: ((K, V)) => U, pool: ForkJoinPool = ForkJoinPool.commonPool()): Unit =
+    TrieMapTask.run[K, V, U](readOnlyTrie, f, (a, _) => a, pool)
+
+  /** Maps all the entries of a read-only snapshot of this map with `f`, in parallel,
+   *  and combines the results with `op`, which must be associative. The order in which
+   *  the results are combined is unspecified.
+   *
+   *  @return the combined results, or `None` if the snapshot is empty
+   */
+  def parMapReduce[R](f: ((K, V)) => R, op: (R, R) => R, pool: ForkJoinPool = ForkJoinPool.commonPool()): Option[R] =
+    TrieMapTask.run[K, V, R](readOnlyTrie, f, op, pool)
+
+  /** Inserts all the entries of a read-only snapshot of `that` into this map, in parallel. */
+  def parPutAll(that: TrieMap[K, V], pool: ForkJoinPool = ForkJoinPool.commonPool()): Unit =
+    that.parForeach(kv => update(kv._1, kv._2), pool)
+
+  /** Removes the entries of this map that satisfy `p`, testing them in parallel over a read-only snapshot.
+   *  An entry is only removed if it is still bound to the same value as in the snapshot.
+   *
+   *  @return the number of removed entries
+   */
+  def parRemoveAll(p: ((K, V)) => Boolean, pool: ForkJoinPool = ForkJoinPool.commonPool()): Int =
+    parMapReduce[Int](kv => if (p(kv) && removeRefEq(kv._1, kv._2)) 1 else 0, _ + _, pool).getOrElse(0)
+
   ////////////////////////////////////////////////////////////////////////////
   //
   // scala/bug#10177 These methods need overrides as the inherited implementations
@@ -1199,6 +1239,77 @@ private[collection] class TrieMapIterator[K, V](var level: Int, private var ct:
 
 }
 
+/** A traversal of a read-only trie, which is split in halves along the arrays of its first levels
+ *  of cnodes, then walked sequentially.
+ *
+ *  The result of a task is `NoResult` if its part of the trie is empty.
+ */
+private[concurrent] final class TrieMapTask[K, V, R](ct: TrieMap[K, V], array: Array[BasicNode], from: Int, until: Int, depth: Int,
+    f: ((K, V)) => R, op: (R, R) => R) extends RecursiveTask[AnyRef] {
+  import TrieMapTask.{NoResult, SplitDepth}
+
+  private var acc: AnyRef = NoResult
+
+  protected def compute(): AnyRef = {
+    if (until - from > 1) {
+      val mid = (from + until) >>> 1
+      val left = new TrieMapTask(ct, array, from, mid, depth, f, op)
+      left.fork()
+      val right = new TrieMapTask(ct, array, mid, until, depth, f, op).compute()
+      combine(left.join(), right)
+    } else if (from < until) array(from) match {
+      case in: INode[K, V] @uc if depth < SplitDepth =>
+        in.gcasRead(ct) match {
+          case cn: CNode[K, V] => new TrieMapTask(ct, cn.array, 0, cn.array.length, depth + 1, f, op).compute()
+          case main =>
+            traverse(main)
+            acc
+        }
+      case node =>
+        traverse(node)
+        acc
+    }
+    else NoResult
+  }
+
+  private def combine(a: AnyRef, b: AnyRef): AnyRef =
+    if (a eq NoResult) b
+    else if (b eq NoResult) a
+    else op(a.asInstanceOf[R], b.asInstanceOf[R]).asInstanceOf[AnyRef]
+
+  private def add(kv: (K, V)): Unit =
+    acc = combine(acc, f(kv).asInstanceOf[AnyRef])
+
+  private def traverse(node: BasicNode | Null): Unit = node match {
+    case sn: SNode[K, V] @uc => add(sn.kvPair)
+    case tn: TNode[K, V] @uc => add(tn.kvPair)
+    case in: INode[K, V] @uc => traverse(in.gcasRead(ct))
+    case cn: CNode[K, V] @uc =>
+      var i = 0
+      while (i < cn.array.length) {
+        traverse(cn.array(i))
+        i += 1
+      }
+    case ln: LNode[K, V] @uc => ln.entries.foreach(add)
+    case null =>
+    case basicNode => throw new MatchError(basicNode)
+  }
+}
+
+private[concurrent] object TrieMapTask {
+  private final val NoResult = new AnyRef
+
+  /** The number of levels of cnodes along which tasks are split, at most 32^3 tasks are created */
+  private final val SplitDepth = 3
+
+  def run[K, V, R](ct: TrieMap[K, V], f: ((K, V)) => R, op: (R, R) => R, pool: ForkJoinPool): Option[R] = {
+    assert(ct.isReadOnly)
+    val root = ct.RDCSS_READ_ROOT()
+    val res = pool.invoke(new TrieMapTask[K, V, R](ct, Array[BasicNode](root), 0, 1, 0, f, op))
+    if (res eq NoResult) None else Some(res.asInstanceOf[R])
+  }
+}
+
 /** Only used for ctrie serialization. */
 @SerialVersionUID(3L)
 private[concurrent] case object TrieMapSerializationEnd
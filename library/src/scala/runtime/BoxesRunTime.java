@@ -28,17 +28,28 @@ public final class BoxesRunTime
 {
     private static final int CHAR = 0, /* BYTE = 1, SHORT = 2, */ INT = 3, LONG = 4, FLOAT = 5, DOUBLE = 6, OTHER = 7;
 
-    /** We don't need to return BYTE and SHORT, as everything which might
+    /** The type code of each class, computed once per class rather than
+     *  through a chain of `instanceof` tests on every call.
+     *  We don't need to return BYTE and SHORT, as everything which might
      *  care widens to INT.
      */
+    private static final ClassValue<Integer> typeCodes = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> c) {
+            if (c == java.lang.Integer.class) return INT;
+            if (c == java.lang.Double.class) return DOUBLE;
+            if (c == java.lang.Long.class) return LONG;
+            if (c == java.lang.Character.class) return CHAR;
+            if (c == java.lang.Float.class) return FLOAT;
+            if (c == java.lang.Byte.class || c == java.lang.Short.class) return INT;
+            return OTHER;
+        }
+    };
+
     private static int typeCode(Object a) {
-        if (a instanceof java.lang.Integer) return INT;
-        if (a instanceof java.lang.Double) return DOUBLE;
-        if (a instanceof java.lang.Long) return LONG;
-        if (a instanceof java.lang.Character) return CHAR;
-        if (a instanceof java.lang.Float) return FLOAT;
-        if ((a instanceof java.lang.Byte) || (a instanceof java.lang.Short)) return INT;
-        return OTHER;
+        if (a instanceof java.lang.Integer) return INT; // by far the most common case
+        if (a == null) return OTHER;
+        return typeCodes.get(a.getClass());
     }
 
 /* BOXING ... BOXING ... BOXING ... BOXING ... BOXING ... BOXING ... BOXING ... BOXING */
@@ -145,6 +156,17 @@ public final class BoxesRunTime
     }
 
     public static boolean equalsNumNum(java.lang.Number xn, java.lang.Number yn) {
+        // Fast paths for the common case of two numbers of the same primitive type
+        if (xn instanceof java.lang.Integer) {
+            if (yn instanceof java.lang.Integer)
+                return ((java.lang.Integer)xn).intValue() == ((java.lang.Integer)yn).intValue();
+        } else if (xn instanceof java.lang.Long) {
+            if (yn instanceof java.lang.Long)
+                return ((java.lang.Long)xn).longValue() == ((java.lang.Long)yn).longValue();
+        } else if (xn instanceof java.lang.Double) {
+            if (yn instanceof java.lang.Double)
+                return ((java.lang.Double)xn).doubleValue() == ((java.lang.Double)yn).doubleValue();
+        }
         int xcode = typeCode(xn);
         int ycode = typeCode(yn);
         switch (ycode > xcode ? ycode : xcode) {
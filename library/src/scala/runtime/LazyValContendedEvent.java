@@ -0,0 +1,34 @@
+/*
+ * Scala (https://www.scala-lang.org)
+ *
+ * Copyright EPFL and Lightbend, Inc. dba Akka
+ *
+ * Licensed under Apache License 2.0
+ * (http://www.apache.org/licenses/LICENSE-2.0).
+ *
+ * See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ */
+
+package scala.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Not for public consumption.  Usage by the runtime only.
+ *
+ *  A JFR event emitted by a thread that had to wait for another thread to finish
+ *  initializing a lazy val. Its stack trace points at the accessor of the lazy val
+ *  and its duration is the time spent waiting.
+ *
+ *  Only loaded when the `scala.runtime.lazyvals.jfr` system property is set,
+ *  see `LazyVals.Waiting.await`.
+ */
+@Name("scala.LazyValContended")
+@Label("Contended Lazy Val Initialization")
+@Category({"Scala", "Runtime"})
+@Description("A thread waited for another thread to initialize a lazy val")
+final class LazyValContendedEvent extends jdk.jfr.Event {
+}
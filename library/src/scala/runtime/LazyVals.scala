@@ -9,22 +9,29 @@ import scala.annotation.*
  * Helper methods used in thread-safe lazy vals.
  */
 object LazyVals {
-  @nowarn
-  private val unsafe: sun.misc.Unsafe^ = { // do not let unsafe leak
-    def throwInitializationException() =
-      throw new ExceptionInInitializerError(
-        new IllegalStateException("Can't find instance of sun.misc.Unsafe")
-      )
-    try
-      val unsafeField = classOf[sun.misc.Unsafe].getDeclaredField("theUnsafe").nn
-      if unsafeField.getType == classOf[sun.misc.Unsafe] then
-        unsafeField.setAccessible(true)
-        unsafeField.get(null).asInstanceOf[sun.misc.Unsafe]
-      else
+  /** `sun.misc.Unsafe` is only needed by the legacy (pre 3.3.0) lazy val scheme and the
+   *  offset-based methods kept for it. Lazy vals compiled with the current scheme use
+   *  VarHandles, so the holder is never initialized for them.
+   */
+  private object UnsafeHolder {
+    @nowarn
+    val unsafe: sun.misc.Unsafe^ = { // do not let unsafe leak
+      def throwInitializationException() =
+        throw new ExceptionInInitializerError(
+          new IllegalStateException("Can't find instance of sun.misc.Unsafe")
+        )
+      try
+        val unsafeField = classOf[sun.misc.Unsafe].getDeclaredField("theUnsafe").nn
+        if unsafeField.getType == classOf[sun.misc.Unsafe] then
+          unsafeField.setAccessible(true)
+          unsafeField.get(null).asInstanceOf[sun.misc.Unsafe]
+        else
+          throwInitializationException()
+      catch case _: NoSuchFieldException =>
         throwInitializationException()
-    catch case _: NoSuchFieldException =>
-      throwInitializationException()
+    }
   }
+  import UnsafeHolder.unsafe
 
   private val base: Int = {
     val processors = java.lang.Runtime.getRuntime.availableProcessors()
@@ -44,6 +51,15 @@ object LazyVals {
   private final val LAZY_VAL_MASK = 3L
   private final val debug = false
 
+  /** Number of busy-wait iterations of a thread waiting for a lazy val before it parks.
+   *  Most initializers are short, so the value is often published within this window.
+   */
+  private final val SpinsBeforePark = 256
+
+  /** Emit a `LazyValContendedEvent` JFR event whenever a thread waits for a lazy val */
+  private val recordContention: Boolean =
+    java.lang.Boolean.getBoolean("scala.runtime.lazyvals.jfr")
+
   /* ------------- Start of public API ------------- */
 
   // This trait extends Serializable to fix #16806 that caused a race condition
@@ -54,6 +70,28 @@ object LazyVals {
    * evaluated and of which other threads await the result.
    */
   final class Waiting extends CountDownLatch(1) with LazyValControlState {
+    /** Wait until the evaluating thread has published the value of the lazy val.
+     *  Spins for a short while before parking the thread on the latch.
+     */
+    override def await(): Unit =
+      if getCount() != 0 then
+        if recordContention then awaitRecorded()
+        else spinThenAwait()
+
+    private def spinThenAwait(): Unit =
+      var spins = SpinsBeforePark
+      while spins > 0 && getCount() != 0 do
+        Thread.onSpinWait()
+        spins -= 1
+      if getCount() != 0 then super.await()
+
+    // kept in a separate method so that the JFR classes are only loaded when enabled
+    private def awaitRecorded(): Unit =
+      val event = new LazyValContendedEvent
+      event.begin()
+      spinThenAwait()
+      event.commit()
+
     /* #20856 If not fully evaluated yet, serialize as if not-evaluat*ing* yet.
      * This strategy ensures the "serializability" condition of parallel
      * programs--not to be confused with the data being `java.io.Serializable`.
@@ -175,37 +175,58 @@ private[hashing] class MurmurHash3 {
   /** Computes the hash of an array. Potential range hashes are recognized to produce a
     * hash that is compatible with rangeHash.
     */
-  final def arrayHash[@specialized T](a: Array[T], seed: Int): Int = {
+  final def arrayHash[@specialized T](a: Array[T], seed: Int): Int =
+    // `@specialized` has no effect in Scala 3: dispatch once on the array type so that
+    // the loop over primitive arrays neither boxes elements nor goes through `array_apply`.
+    // The element hashes are the ones `##` computes on the boxed values.
+    (a: AnyRef) match {
+      case a: Array[AnyRef]  => arrayHashWith(a.length, seed, a(_).##)
+      case a: Array[Int]     => arrayHashWith(a.length, seed, a(_))
+      case a: Array[Long]    => arrayHashWith(a.length, seed, i => scala.runtime.Statics.longHash(a(i)))
+      case a: Array[Double]  => arrayHashWith(a.length, seed, i => scala.runtime.Statics.doubleHash(a(i)))
+      case a: Array[Float]   => arrayHashWith(a.length, seed, i => scala.runtime.Statics.floatHash(a(i)))
+      case a: Array[Char]    => arrayHashWith(a.length, seed, a(_).toInt)
+      case a: Array[Byte]    => arrayHashWith(a.length, seed, a(_).toInt)
+      case a: Array[Short]   => arrayHashWith(a.length, seed, a(_).toInt)
+      case a: Array[Boolean] => arrayHashWith(a.length, seed, a(_).##)
+      case _                 => arrayHashWith(a.length, seed, a(_).##)
+    }
+
+  /** The body of `arrayHash`, where `hashAt(i)` is the hash of the `i`-th element. */
+  private inline def arrayHashWith(l: Int, seed: Int, inline hashAt: Int => Int): Int = {
     var h = seed
-    val l = a.length
     l match {
       case 0 =>
         finalizeHash(h, 0)
       case 1 =>
-        finalizeHash(mix(h, a(0).##), 1)
+        finalizeHash(mix(h, hashAt(0)), 1)
       case _ =>
-        val initial = a(0).##
+        val initial = hashAt(0)
         h = mix(h, initial)
         val h0 = h
-        var prev = a(1).##
+        var prev = hashAt(1)
         val rangeDiff = prev - initial
+        // no `return` in inline methods: leave the range detection loop with a flag instead
+        var isRange = true
         var i = 2
-        while (i < l) {
+        while (isRange && i < l) {
           h = mix(h, prev)
-          val hash = a(i).##
+          val hash = hashAt(i)
           if(rangeDiff != hash - prev || rangeDiff == 0) {
             h = mix(h, hash)
-            i += 1
-            while (i < l) {
-              h = mix(h, a(i).##)
-              i += 1
-            }
-            return finalizeHash(h, l)
+            isRange = false
           }
-          prev = hash
+          else prev = hash
           i += 1
         }
-        avalanche(mix(mix(h0, rangeDiff), prev))
+        if (isRange) avalanche(mix(mix(h0, rangeDiff), prev))
+        else {
+          while (i < l) {
+            h = mix(h, hashAt(i))
+            i += 1
+          }
+          finalizeHash(h, l)
+        }
     }
   }
 
@@ -14,6 +14,9 @@ object MiMaFilters {
         ProblemFilters.exclude[FinalClassProblem]("scala.jdk.Accumulator$AccumulatorFactoryShape$"),
         ProblemFilters.exclude[DirectMissingMethodProblem]("scala.collection.ArrayOps.iterateUntilEmpty$extension"),
         ProblemFilters.exclude[DirectMissingMethodProblem]("scala.collection.ArrayOps.scala$collection$ArrayOps$$elemTag$extension"),
+        ProblemFilters.exclude[MissingClassProblem]("scala.collection.concurrent.Long*"),
+        ProblemFilters.exclude[DirectMissingMethodProblem]("scala.collection.concurrent.TrieMap.par*"),
+        ProblemFilters.exclude[MissingClassProblem]("scala.collection.concurrent.TrieMapTask*"),
       ),
     )
 
@@ -22,6 +22,7 @@ import xsbti.Problem;
 import xsbti.*;
 import xsbti.compile.Output;
 import xsbti.compile.CompileProgress;
+import xsbti.compile.DependencyChanges;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,18 +36,26 @@ import java.util.Arrays;
 public class CompilerBridgeDriver extends Driver {
   private final String[] scalacOptions;
   private final String[] args;
+  private final String outputDirectory;
+  private final CompilerContextPool pool;
 
   public CompilerBridgeDriver(String[] scalacOptions, Output output) {
+    this(scalacOptions, output, CompilerContextPool.instance());
+  }
+
+  CompilerBridgeDriver(String[] scalacOptions, Output output, CompilerContextPool pool) {
     super();
     this.scalacOptions = scalacOptions;
+    this.pool = pool;
 
     if (!output.getSingleOutputAsPath().isPresent())
       throw new IllegalArgumentException("output should be a SingleOutput, was a " + output.getClass().getName());
 
+    this.outputDirectory = output.getSingleOutputAsPath().get().toAbsolutePath().toString();
     this.args = new String[scalacOptions.length + 2];
     System.arraycopy(scalacOptions, 0, args, 0, scalacOptions.length);
     args[scalacOptions.length] = "-d";
-    args[scalacOptions.length + 1] = output.getSingleOutputAsPath().get().toAbsolutePath().toString();
+    args[scalacOptions.length + 1] = outputDirectory;
   }
 
   private static final String StopInfoError =
@@ -83,8 +92,18 @@ public class CompilerBridgeDriver extends Driver {
     reporter.reportBasicWarning(message);
   }
 
-  synchronized public void run(
+  public void run(
       VirtualFile[] sources, AnalysisCallback callback, Logger log, Reporter delegate, CompileProgress progress) {
+    run(sources, null, callback, log, delegate, progress);
+  }
+
+  /**
+   * Compile `sources`, reusing a warm compiler instance from [[CompilerContextPool]] when the pool is enabled.
+   *
+   * @param changes the changes in upstream dependencies reported by Zinc, or `null` if unknown
+   */
+  public void run(VirtualFile[] sources, DependencyChanges changes, AnalysisCallback callback, Logger log,
+      Reporter delegate, CompileProgress progress) {
     VirtualFile[] sortedSources = new VirtualFile[sources.length];
     System.arraycopy(sources, 0, sortedSources, 0, sources.length);
     Arrays.sort(sortedSources, (x0, x1) -> x0.id().compareTo(x1.id()));
@@ -119,10 +138,14 @@ public class CompilerBridgeDriver extends Driver {
       asVirtualFile(sourceFile, reporter, lookup)
     );
 
+    CompilerContextPool.Entry pooled = pool.acquire(args, outputDirectory, changes);
+    boolean reusable = false;
+
     try {
       log.debug(this::infoOnCachedCompiler);
 
-      Contexts.Context initialCtx = initCtx()
+      Contexts.Context rootCtx = pooled != null ? pooled.base.initialCtx() : initCtx();
+      Contexts.Context initialCtx = rootCtx
         .fresh()
         .setReporter(reporter)
         .setIncCallback(incCallback)
@@ -136,29 +159,10 @@ public class CompilerBridgeDriver extends Driver {
 
       if (!delegate.hasErrors()) {
         log.debug(this::prettyPrintCompilationArguments);
-        Compiler compiler = newCompiler(context);
-
+        Compiler compiler = pooled != null ? pooled.compiler() : newCompiler(context);
         doCompile(compiler, sourcesBuffer.toList(), context);
 
-        for (xsbti.Problem problem: delegate.problems()) {
-          try {
-            AnalysisCallback2 callback2 = (AnalysisCallback2)callback;
-            callback2.problem2(
-              problem.category(),
-              problem.position(),
-              problem.message(),
-              problem.severity(),
-              true, // reported
-              problem.rendered(),
-              problem.diagnosticCode(),
-              problem.diagnosticRelatedInformation(),
-              problem.actions()
-            );
-          } catch (NoClassDefFoundError e) {
-            callback.problem(problem.category(), problem.position(), problem.message(), problem.severity(),
-              true);
-          }
-        }
+        reportProblems(callback, delegate.problems());
       } else {
         delegate.printSummary();
       }
@@ -167,11 +171,46 @@ public class CompilerBridgeDriver extends Driver {
         log.debug(() -> "Compilation failed");
         throw new InterfaceCompileFailed(args, delegate.problems(), "Compilation failed");
       }
+      reusable = true;
     } finally {
+      pool.release(pooled, reusable);
       reporter.dropDelegate();
     }
   }
 
+  /**
+   * Hand all the problems of the run over to Zinc in one pass. Whether the callback supports
+   * `problem2` is decided once, rather than for every problem.
+   */
+  private static void reportProblems(AnalysisCallback callback, xsbti.Problem[] problems) {
+    int i = 0;
+    try {
+      if (callback instanceof AnalysisCallback2) {
+        AnalysisCallback2 callback2 = (AnalysisCallback2) callback;
+        for (; i < problems.length; i++) {
+          xsbti.Problem problem = problems[i];
+          callback2.problem2(
+            problem.category(),
+            problem.position(),
+            problem.message(),
+            problem.severity(),
+            true, // reported
+            problem.rendered(),
+            problem.diagnosticCode(),
+            problem.diagnosticRelatedInformation(),
+            problem.actions()
+          );
+        }
+      }
+    } catch (NoClassDefFoundError e) {
+      // older versions of Zinc: report this problem and the remaining ones through `problem`
+    }
+    for (; i < problems.length; i++) {
+      xsbti.Problem problem = problems[i];
+      callback.problem(problem.category(), problem.position(), problem.message(), problem.severity(), true);
+    }
+  }
+
   private static AbstractFile asDottyFile(VirtualFile virtualFile) {
     if (virtualFile instanceof PathBasedFile) {
       java.nio.file.Path path = ((PathBasedFile) virtualFile).toPath();
@@ -197,6 +236,8 @@ public class CompilerBridgeDriver extends Driver {
 
   private String infoOnCachedCompiler() {
     String compilerId = Integer.toHexString(hashCode());
+    if (pool.isEnabled())
+      compilerId += " (pooled)";
     String compilerVersion = Properties.versionString();
     return String.format("[zinc] Running cached compiler %s for Scala Compiler %s", compilerId, compilerVersion);
   }
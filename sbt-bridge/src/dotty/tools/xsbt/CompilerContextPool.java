@@ -0,0 +1,210 @@
+/*
+ * Zinc - The incremental compiler for Scala.
+ * Copyright Lightbend, Inc. and Mark Harrah
+ */
+
+package dotty.tools.xsbt;
+
+import dotty.tools.dotc.Compiler;
+import dotty.tools.dotc.Run;
+import dotty.tools.dotc.core.Contexts;
+import dotty.tools.dotc.core.SymbolLoaders;
+import dotty.tools.io.AbstractFile;
+import xsbti.compile.DependencyChanges;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded pool of warm compiler instances, shared by every driver loaded by the same bridge class loader.
+ *
+ * An entry keeps a `ContextBase` together with the `Compiler` that last ran in it, so that the root package,
+ * `Definitions` and the symbols already loaded from the classpath survive from one Zinc invocation to the next,
+ * in the same way the presentation compiler keeps them between two runs.
+ *
+ * Entries are keyed by the full list of compiler arguments, which includes the classpath and the output directory.
+ * An idle entry is only handed out again if Zinc reports no changes in the upstream classes and libraries, and if
+ * the size and modification time of the jars on its classpath, and the modification time of its class directories,
+ * did not change since it was released. Otherwise it is dropped and the caller starts from a fresh `ContextBase`.
+ * The contents of the class directories are not walked: changes to upstream classes are reported by Zinc.
+ *
+ * The output directory is not part of that check, since Zinc rewrites and deletes class files there between two
+ * compilations. Instead, every run of a pooled compiler but the first starts by dropping the toplevel symbols that
+ * earlier runs defined from sources or loaded from the output directory, and by entering the classes found there
+ * now (see `SymbolLoaders.refreshClassDirectory`). Only the symbols loaded from the rest of the classpath stay warm.
+ *
+ * Compilations writing to a jar or reading TASTy files with `-from-tasty` are not pooled.
+ *
+ * An entry is owned by one compilation at a time, so independent subprojects sharing this bridge compile in
+ * parallel, each on its own `ContextBase`; only the jar indexes of `ZipAndJarClassPathFactory` are shared between
+ * them. Two concurrent compilations with the same arguments simply get two different entries.
+ *
+ * The pool is disabled by default: set the `dotty.xsbt.contextPoolSize` system property to the maximum number of
+ * idle compiler instances to keep alive.
+ */
+final class CompilerContextPool {
+  static final String SizeProperty = "dotty.xsbt.contextPoolSize";
+
+  private static final CompilerContextPool instance = new CompilerContextPool(Integer.getInteger(SizeProperty, 0));
+
+  static CompilerContextPool instance() {
+    return instance;
+  }
+
+  /** A compiler instance checked out of the pool, owned by a single compilation until it is released. */
+  static final class Entry {
+    final String key;
+    final Contexts.ContextBase base;
+    private final String outputDirectory;
+    private final List<String> classpath;
+    private final PooledCompiler compiler;
+    private String fingerprint = null;
+
+    private Entry(String key, String outputDirectory, List<String> classpath) {
+      this.key = key;
+      this.base = new Contexts.ContextBase();
+      this.outputDirectory = outputDirectory;
+      this.classpath = classpath;
+      this.compiler = new PooledCompiler(AbstractFile.getDirectory(Paths.get(outputDirectory)));
+    }
+
+    /** The compiler of this entry. It must be used by every run in `base`, so that run ids keep increasing. */
+    Compiler compiler() {
+      return compiler;
+    }
+  }
+
+  /**
+   * A compiler whose runs share a `ContextBase`. Every run but the first starts by bringing the toplevel symbols
+   * of the packages loaded so far in sync with the sources and the class files Zinc left in the output directory.
+   */
+  private static final class PooledCompiler extends Compiler {
+    private final AbstractFile outputDirectory;
+    private boolean warm = false;
+
+    PooledCompiler(AbstractFile outputDirectory) {
+      this.outputDirectory = outputDirectory;
+    }
+
+    @Override
+    public Run newRun(Contexts.Context ctx) {
+      Run run = super.newRun(ctx);
+      if (warm) SymbolLoaders.refreshClassDirectory(outputDirectory, run.runContext());
+      warm = true;
+      return run;
+    }
+  }
+
+  private final int capacity;
+  private int reused = 0;
+
+  /** Idle entries, in least recently used order */
+  private final LinkedHashMap<String, Entry> idle = new LinkedHashMap<>(16, 0.75f, true);
+
+  CompilerContextPool(int capacity) {
+    this.capacity = capacity;
+  }
+
+  boolean isEnabled() {
+    return capacity > 0;
+  }
+
+  /** The number of compilations that were handed a warm entry */
+  synchronized int reused() {
+    return reused;
+  }
+
+  /**
+   * Returns a warm entry for `args` if one is idle and still valid, or a fresh one otherwise.
+   * Returns `null` if the pool is disabled, or if the compilation cannot be pooled.
+   *
+   * @param args            the full compiler arguments, including `-d`
+   * @param outputDirectory the output directory, which is not fingerprinted since Zinc itself manages it
+   * @param changes         the changes in upstream classes and libraries reported by Zinc, or `null` if unknown
+   */
+  Entry acquire(String[] args, String outputDirectory, DependencyChanges changes) {
+    if (!isEnabled() || !Files.isDirectory(Paths.get(outputDirectory)) || Arrays.asList(args).contains("-from-tasty"))
+      return null;
+    String key = String.join("\u0000", args);
+    Entry entry;
+    synchronized (this) {
+      entry = idle.remove(key);
+    }
+    if (entry != null && changes != null && changes.isEmpty() &&
+        fingerprint(entry.classpath, entry.outputDirectory).equals(entry.fingerprint)) {
+      synchronized (this) {
+        reused += 1;
+      }
+      return entry;
+    }
+    return new Entry(key, outputDirectory, classpathOf(args));
+  }
+
+  /**
+   * Gives back an entry after a compilation. Entries of failed compilations are dropped
+   * since their symbol tables may refer to erroneous definitions.
+   */
+  void release(Entry entry, boolean reusable) {
+    if (entry == null || !reusable) return;
+    entry.fingerprint = fingerprint(entry.classpath, entry.outputDirectory);
+    // the next compilation using this entry may run on another sbt thread
+    entry.base.releaseThread();
+    synchronized (this) {
+      idle.put(entry.key, entry);
+      Iterator<Map.Entry<String, Entry>> it = idle.entrySet().iterator();
+      while (idle.size() > capacity && it.hasNext()) {
+        it.next();
+        it.remove();
+      }
+    }
+  }
+
+  private static List<String> classpathOf(String[] args) {
+    List<String> entries = new ArrayList<>();
+    for (int i = 0; i < args.length - 1; i++) {
+      String arg = args[i];
+      if (arg.equals("-classpath") || arg.equals("-cp") || arg.equals("--class-path") ||
+          arg.equals("-bootclasspath") || arg.equals("--boot-class-path"))
+        for (String path: args[i + 1].split(File.pathSeparator))
+          if (!path.isEmpty()) entries.add(path);
+    }
+    return entries;
+  }
+
+  /**
+   * A summary of the classpath entries except the output directory: the size and modification time of the jars,
+   * and the modification time of the directories, which only changes when a direct child is added or removed.
+   */
+  private static String fingerprint(List<String> classpath, String outputDirectory) {
+    Path output = Paths.get(outputDirectory).toAbsolutePath().normalize();
+    StringBuilder builder = new StringBuilder();
+    for (String entry: classpath) {
+      Path path = Paths.get(entry).toAbsolutePath().normalize();
+      if (path.equals(output)) continue;
+      builder.append(path).append(':');
+      try {
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        if (!attrs.isDirectory()) builder.append(attrs.size());
+        builder.append('@').append(attrs.lastModifiedTime().toMillis());
+      } catch (NoSuchFileException e) {
+        builder.append("missing");
+      } catch (IOException e) {
+        // an unreadable entry never matches, so the pooled compiler is discarded
+        builder.append("error@").append(System.nanoTime());
+      }
+      builder.append(';');
+    }
+    return builder.toString();
+  }
+}
@@ -20,7 +20,7 @@ import xsbti.Position;
 import xsbti.Severity;
 
 import java.util.Collections;
-import java.util.function.*;
+import java.util.function.Function;
 
 final public class DelegatingReporter extends AbstractReporter {
   private xsbti.Reporter delegate;
@@ -49,6 +49,8 @@ final public class DelegatingReporter extends AbstractReporter {
     Severity severity = severityOf(dia.level());
     Position position = positionOf(dia.pos().nonInlined());
     Message message = dia.msg();
+    // Render the problem now: Zinc may only read it after the run, when its context
+    // (and, for a pooled compiler, its `ContextBase`) may already be used by another run.
     String text;
     if (Diagnostic.shouldExplain(dia, ctx) && !message.explanation().isEmpty())
       text = message.message() + System.lineSeparator() + explanation(message, ctx);
@@ -1,6 +1,10 @@
 package dotty.tools.xsbt;
 
 import dotty.tools.dotc.util.SourceFile;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.function.Function;
 
 public final class IncrementalCallback implements dotty.tools.dotc.sbt.interfaces.IncrementalCallback {
@@ -8,9 +12,28 @@ public final class IncrementalCallback implements dotty.tools.dotc.sbt.interface
   private final xsbti.AnalysisCallback delegate;
   private final Function<SourceFile, xsbti.VirtualFile> asVirtualFile;
 
+  /**
+   * Streaming mode: if the analysis callback of the build tool has a public method
+   * `void unitAnalysisCompleted(xsbti.VirtualFile)`, it is called as soon as the API and the
+   * dependencies of each source have been reported, instead of only at the end of the run.
+   * The method is looked up by name and exact signature, since xsbti has no such hook and the
+   * callback is loaded by the class loader of the build tool, which cannot see the bridge.
+   */
+  private final MethodHandle unitCompleted;
+
   public IncrementalCallback(xsbti.AnalysisCallback delegate, Function<SourceFile, xsbti.VirtualFile> asVirtualFile) {
     this.delegate = delegate;
     this.asVirtualFile = asVirtualFile;
+    this.unitCompleted = unitCompletedHandle(delegate);
+  }
+
+  private static MethodHandle unitCompletedHandle(xsbti.AnalysisCallback delegate) {
+    try {
+      return MethodHandles.publicLookup().findVirtual(
+        delegate.getClass(), "unitAnalysisCompleted", MethodType.methodType(void.class, xsbti.VirtualFile.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
   }
 
   @Override
@@ -58,6 +81,19 @@ public final class IncrementalCallback implements dotty.tools.dotc.sbt.interface
     delegate.generatedNonLocalClass(asVirtualFile.apply(source), classFile, binaryClassName, srcClassName);
   }
 
+  @Override
+  public void unitAnalysisCompleted(SourceFile sourceFile) {
+    if (unitCompleted != null) {
+      try {
+        unitCompleted.invoke(delegate, asVirtualFile.apply(sourceFile));
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
   @Override
   public void apiPhaseCompleted() {
     delegate.apiPhaseCompleted();
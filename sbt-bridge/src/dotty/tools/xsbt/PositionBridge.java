@@ -19,6 +19,11 @@ public class PositionBridge implements Position {
   private final SourceFile src;
   private final String pathId;
 
+  // Zinc asks for the line content and pointer several times per problem,
+  // they are computed once from the line index of the source file.
+  private String _lineContent = null;
+  private Optional<Integer> _pointer = null;
+
   public static final Position noPosition = new Position() {
     public Optional<java.io.File> sourceFile() {
       return Optional.empty();
@@ -65,6 +70,12 @@ public class PositionBridge implements Position {
 
   @Override
   public String lineContent() {
+    if (_lineContent == null)
+      _lineContent = computeLineContent();
+    return _lineContent;
+  }
+
+  private String computeLineContent() {
     if (src.content().length == 0)
       return "";
 
@@ -96,8 +107,11 @@ public class PositionBridge implements Position {
 
   @Override
   public Optional<Integer> pointer() {
-    if (src.content().length == 0) return Optional.empty();
-    return Optional.of(pos.point() - src.startOfLine(pos.point()));
+    if (_pointer == null) {
+      if (src.content().length == 0) _pointer = Optional.empty();
+      else _pointer = Optional.of(pos.point() - src.startOfLine(pos.point()));
+    }
+    return _pointer;
   }
 
   @Override
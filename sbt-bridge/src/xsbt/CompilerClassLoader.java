@@ -34,6 +34,12 @@ import java.util.WeakHashMap;
  * we override `loadClass` to load the `xsbti.*` interfaces from `sbtLoader`.
  */
 public class CompilerClassLoader extends URLClassLoader {
+  static {
+    // Subprojects compiled in parallel load compiler classes concurrently,
+    // use per-class locks instead of locking the whole loader.
+    ClassLoader.registerAsParallelCapable();
+  }
+
   private final ClassLoader sbtLoader;
 
   public CompilerClassLoader(URL[] urls, ClassLoader sbtLoader) {
@@ -0,0 +1,114 @@
+package dotty.tools.xsbt
+
+import org.junit.Assert.*
+import org.junit.Test
+
+import sbt.io.IO
+import xsbt.{TestLogger, TestReporter, TestVirtualFile}
+import xsbti.{Severity, TestCallback, TestCompileProgress, VirtualFile, VirtualFileRef}
+import xsbti.compile.{DependencyChanges, SingleOutput}
+
+import java.io.File
+import java.nio.file.{Files, Path, Paths}
+
+import scala.collection.mutable
+
+/** Incremental compilations of a project through a `CompilerContextPool`, so that every compilation
+ *  but the first runs on the symbol table left by the previous one.
+ */
+class CompilerContextPoolSpecification {
+
+  @Test
+  def unchangedClassesAreReloaded = {
+    val project = new PooledProject
+    project.write("A.scala", "package p\nclass A { def f: Int = 1 }")
+    project.write("B.scala", "package p\nclass B { def g: Int = new A().f }")
+    assertEquals(Nil, project.compile("A.scala", "B.scala"))
+    project.write("B.scala", "package p\nclass B { def g: Int = new A().f + 1 }")
+    assertEquals(Nil, project.compile("B.scala"))
+    assertEquals(Nil, project.compile("B.scala"))
+    assertEquals(2, project.pool.reused())
+  }
+
+  @Test
+  def renamedClass = {
+    val project = new PooledProject
+    project.write("A.scala", "class A")
+    project.write("B.scala", "class B { def a: A = new A }")
+    assertEquals(Nil, project.compile("A.scala", "B.scala"))
+    project.write("A.scala", "class A2")
+    val errors = project.compile("A.scala", "B.scala")
+    assertTrue(errors.toString, errors.exists(_.contains("Not found: type A")))
+    assertEquals(1, project.pool.reused())
+  }
+
+  @Test
+  def removedClass = {
+    val project = new PooledProject
+    project.write("A.scala", "package p\nobject A { def f: Int = 1 }")
+    project.write("B.scala", "package p\nobject B { def g: Int = A.f }")
+    assertEquals(Nil, project.compile("A.scala", "B.scala"))
+    project.delete("A.scala")
+    val errors = project.compile("B.scala")
+    assertTrue(errors.toString, errors.exists(_.contains("Not found: A")))
+    assertEquals(1, project.pool.reused())
+  }
+
+  @Test
+  def changedSignature = {
+    val project = new PooledProject
+    project.write("A.scala", "class A { def f: Int = 1 }")
+    project.write("B.scala", "class B { def g: Int = new A().f }")
+    assertEquals(Nil, project.compile("A.scala", "B.scala"))
+    project.write("A.scala", "class A { def f: String = \"1\" }")
+    val errors = project.compile("A.scala", "B.scala")
+    assertTrue(errors.toString, errors.exists(_.contains("Found:    String")))
+    assertEquals(1, project.pool.reused())
+  }
+
+  /** A project compiled to the same output directory by drivers sharing a pool. As Zinc does,
+   *  the class files of a source are deleted before it is compiled again or after it is removed.
+   */
+  private class PooledProject {
+    val pool = new CompilerContextPool(1)
+    private val baseDirectory = IO.createTemporaryDirectory
+    private val classes = new File(baseDirectory, "classes")
+    classes.mkdir()
+    private val products = mutable.Map.empty[String, Set[Path]]
+
+    def write(name: String, src: String): Unit =
+      IO.write(new File(baseDirectory, name), src)
+
+    def delete(name: String): Unit =
+      invalidate(name)
+      IO.delete(new File(baseDirectory, name))
+
+    /** Compiles the sources called `names` and returns the messages of the reported errors */
+    def compile(names: String*): List[String] =
+      names.foreach(invalidate)
+      val output = new SingleOutput:
+        def getOutputDirectory(): File = classes
+      val options = Array("-Yforce-sbt-phases", "-classpath", classes.getAbsolutePath, "-usejavacp")
+      val driver = new CompilerBridgeDriver(options, output, pool)
+      val sources: Array[VirtualFile] = names.map(name => new TestVirtualFile(new File(baseDirectory, name).toPath)).toArray
+      val callback = new TestCallback
+      val reporter = new TestReporter
+      try driver.run(sources, NoChanges, callback, new TestLogger, reporter, new TestCompileProgress)
+      catch case _: InterfaceCompileFailed => ()
+      for (classFile, source) <- callback.productClassesToSources do
+        val name = Paths.get(source.id).getFileName.toString
+        products(name) = products.getOrElse(name, Set.empty) + classFile
+      reporter.problems().toList.filter(_.severity == Severity.Error).map(_.message)
+
+    private def invalidate(name: String): Unit =
+      for classFile <- products.remove(name).getOrElse(Set.empty) do
+        Files.deleteIfExists(classFile)
+        Files.deleteIfExists(classFile.resolveSibling(classFile.getFileName.toString.stripSuffix(".class") + ".tasty"))
+  }
+
+  private object NoChanges extends DependencyChanges:
+    def isEmpty(): Boolean = true
+    def modifiedBinaries(): Array[File] = Array.empty
+    def modifiedClasses(): Array[String] = Array.empty
+    def modifiedLibraries(): Array[VirtualFileRef] = Array.empty
+}
@@ -1,6 +1,7 @@
 package xsbt
 
 import xsbti.TestCallback.ExtractedClassDependencies
+import xsbti.api.DependencyContext
 
 import org.junit.Test
 import org.junit.Assert._
@@ -185,6 +186,17 @@ class DependencySpecification {
     classDependencies
   }
 
+  @Test
+  def dependenciesRecordedBeforeUnitCompleted = {
+    val srcA = "class A"
+    val srcB = "class B extends A { def a: A = new A }"
+    val output = new ScalaCompilerForUnitTesting().compileSrcs(srcA, srcB)
+    val completedB = output.analysis.completedUnits.find(_.source == output.srcFiles(1)).get
+    // the dependencies of `B` were sent to the build tool before its unit was reported as completed
+    assertTrue(completedB.classDependencies.contains(("A", "B", DependencyContext.DependencyByInheritance)))
+    assertTrue(completedB.usedNames("B").contains("A"))
+  }
+
   private def extractClassDependenciesLocal: ExtractedClassDependencies = {
     val srcA = "class A"
     val srcB = "class B"
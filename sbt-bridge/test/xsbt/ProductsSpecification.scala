@@ -57,5 +57,39 @@ class ProductsSpecification {
     assertEquals(expectedSrc, srcNames.toSet)
   }
 
+  @Test
+  def streamAnalysisPerUnit = {
+    val srcA = "class A"
+    val srcB = "class B extends A"
+    val output = compiler.compileSrcs(srcA, srcB)
+    val completed = output.analysis.completedUnits
+
+    // each unit is reported once, after all of its API was extracted
+    assertEquals(output.srcFiles.toSet, completed.map(_.source).toSet)
+    assertEquals(output.srcFiles.size, completed.size)
+    for unit <- completed do
+      assertEquals(output.analysis.apis(unit.source), unit.apis)
+  }
+
+  @Test
+  def streamJavaUnits = {
+    val output = compiler.compileSrcs(List(List("class S extends J")), javaSrcs = List("class J {}"))
+    val completed = output.analysis.completedUnits
+
+    // Java units are reported when they are dropped after typer, Scala units after inlining
+    assertEquals(output.srcFiles.toSet, completed.map(_.source).toSet)
+    assertTrue(completed.exists(_.source.id().endsWith(".java")))
+  }
+
+  @Test
+  def noStreamingWhenStoppedBeforeInlining = {
+    val output = compiler.compileSrcs(List(List("class A")), extraOptions = List("-Ystop-after:sbt-api"))
+
+    // the API was extracted, but the dependencies would only be sent by `inlining`,
+    // so the unit is left to the end of the run
+    assertTrue(output.analysis.apis(output.srcFiles.head).nonEmpty)
+    assertTrue(output.analysis.completedUnits.isEmpty)
+  }
+
   private def compiler = new ScalaCompilerForUnitTesting
 }
@@ -130,12 +130,13 @@ class ScalaCompilerForUnitTesting {
    *
    * Snippets can be grouped to be compiled together in the same compiler run. This is
    * useful to compile macros, which cannot be used in the same compilation run that
-   * defines them.
+   * defines them. The Java snippets in `javaSrcs` are compiled with the first group.
    *
    * The sequence of temporary files corresponding to passed snippets and analysis
    * callback is returned as a result.
    */
-  def compileSrcs(groupedSrcs: List[List[String]], sourcePath: List[String] = Nil, compileToJar: Boolean = false, incEnabled: Boolean = true): CompileOutput = {
+  def compileSrcs(groupedSrcs: List[List[String]], sourcePath: List[String] = Nil, compileToJar: Boolean = false, incEnabled: Boolean = true,
+      javaSrcs: List[String] = Nil, extraOptions: List[String] = Nil): CompileOutput = {
       val temp = IO.createTemporaryDirectory
       val (forceSbtArgs, analysisCallback) =
         if (incEnabled)
@@ -168,7 +169,11 @@ class ScalaCompilerForUnitTesting {
             prepareSrcFile(temp, fileName, src)
         }
 
-        val virtualSrcFiles = srcFiles.toArray
+        val javaSrcFiles =
+          if unitId > 0 then Nil
+          else javaSrcs.zipWithIndex.map((src, i) => prepareSrcFile(temp, s"Java-$i.java", src))
+
+        val virtualSrcFiles = (srcFiles ++ javaSrcFiles).toArray
         val classesOutputPath = classesOutput.getAbsolutePath()
         val output = new SingleOutput:
           def getOutputDirectory(): File = classesOutput
@@ -178,7 +183,7 @@ class ScalaCompilerForUnitTesting {
         bridge.run(
           virtualSrcFiles,
           new TestDependencyChanges,
-          (forceSbtArgs ++: Array("-classpath", classesOutputPath, "-usejavacp", "-d", classesOutputPath)) ++ maybeSourcePath,
+          (forceSbtArgs ++: Array("-classpath", classesOutputPath, "-usejavacp", "-d", classesOutputPath)) ++ maybeSourcePath ++ extraOptions,
           output,
           analysisCallback,
           new TestReporter,
@@ -188,7 +193,7 @@ class ScalaCompilerForUnitTesting {
 
         testProgress.completeRun()
 
-        srcFiles
+        srcFiles ++ javaSrcFiles
       }
       CompileOutput(files.flatten.toSeq, classesOutput.toPath, analysisCallback, testProgress)
   }
@@ -31,6 +31,8 @@ class TestCallback extends AnalysisCallback2 {
     .withDefaultValue(Set.empty)
   val apis: scala.collection.mutable.Map[VirtualFileRef, Seq[ClassLike]] =
     scala.collection.mutable.Map.empty
+  /** Sources whose analysis was streamed before the end of the run, with the analysis recorded at that time */
+  val completedUnits = new ArrayBuffer[TestCallback.CompletedUnit]
 
   def usedNames = usedNamesAndScopes.view.mapValues(_.map(_.name)).toMap
 
@@ -127,6 +129,9 @@ class TestCallback extends AnalysisCallback2 {
       diagnosticRelatedInformation: ju.List[xsbti.DiagnosticRelatedInformation],
       actions: ju.List[xsbti.Action]
   ): Unit = ()
+  /** Called by the bridge in streaming mode, see `dotty.tools.xsbt.IncrementalCallback` */
+  def unitAnalysisCompleted(source: VirtualFile): Unit =
+    completedUnits += TestCallback.CompletedUnit(source, apis.getOrElse(source, Nil), classDependencies.toList, usedNames)
   override def dependencyPhaseCompleted(): Unit = ()
   override def apiPhaseCompleted(): Unit = ()
   override def enabled(): Boolean = true
@@ -141,6 +146,13 @@ class TestCallback extends AnalysisCallback2 {
 }
 
 object TestCallback {
+  case class CompletedUnit(
+      source: VirtualFileRef,
+      apis: Seq[ClassLike],
+      classDependencies: Seq[(String, String, DependencyContext)],
+      usedNames: Map[String, Set[String]]
+  )
+
   case class ExtractedClassDependencies(
       memberRef: Map[String, Set[String]],
       inheritance: Map[String, Set[String]],
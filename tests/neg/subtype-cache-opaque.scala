@@ -0,0 +1,15 @@
+//> using options -Ysubtype-cache-size 1024
+
+object Before:
+  def widen(xs: List[opaques.Id]): List[Int] = xs // error
+  def narrow(xs: List[Int]): List[opaques.Id] = xs // error
+
+object opaques:
+  opaque type Id = Int
+  // the same checks succeed in the scope of `Id`, even though they failed before
+  def widen(xs: List[opaques.Id]): List[Int] = xs
+  def narrow(xs: List[Int]): List[opaques.Id] = xs
+
+object After:
+  def widen(xs: List[opaques.Id]): List[Int] = xs // error
+  def narrow(xs: List[Int]): List[opaques.Id] = xs // error
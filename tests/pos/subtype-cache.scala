@@ -0,0 +1,21 @@
+//> using options -Ysubtype-cache-size 1024
+
+object Test:
+  type Small = Int | String | Boolean
+  type Large = Int | String | Boolean | Long | Double | List[Int] | Option[String]
+
+  def widen(x: Small): Large = x
+  def widenAll(xs: List[Small]): List[Large] = xs
+  def pairs(xs: List[(Small, Option[Small])]): List[(Large, Option[Large])] = xs
+
+  val a: List[Large] = widenAll(List(1, "a", true))
+  val b: List[Large] = widenAll(List(2, "b", false))
+  val c: Map[Small, List[Large]] = Map(1 -> a, "b" -> b)
+
+  object opaques:
+    opaque type Id = Int | String
+    def id(x: Int | String): Id = x
+    def list(xs: List[Int | String]): List[Id] = xs
+
+  val ids: List[opaques.Id] = opaques.list(List(1, "a"))
+  def notInt(x: List[opaques.Id]): List[Any] = x
@@ -0,0 +1,85 @@
+// scalajs: --skip
+
+import scala.collection.concurrent.LongTrieMap
+
+object Test {
+
+  def main(args: Array[String]): Unit = {
+    operations()
+    snapshots()
+    concurrentUpdates()
+  }
+
+  def operations(): Unit = {
+    val m = new LongTrieMap[String]
+    val keys = (0L until 5000L).map(i => i * 0x9E3779B97F4A7C15L) ++ Seq(Long.MinValue, Long.MaxValue, -1L)
+    for (k <- keys) m(k) = k.toString
+    assert(m.size == keys.size, m.size)
+    for (k <- keys) assert(m(k) == k.toString)
+    assert(m.get(42L).isEmpty)
+    assert(m.iterator.map(_._1).toSet == keys.toSet)
+
+    assert(m.put(-1L, "x") == Some("-1"))
+    assert(m.putIfAbsent(-1L, "y") == Some("x"))
+    assert(m.putIfAbsent(42L, "y") == None)
+    assert(m.replace(42L, "z") == Some("y"))
+    assert(!m.replace(42L, "y", "w"))
+    assert(m.replace(42L, "z", "w"))
+    assert(!m.remove(42L, "z"))
+    assert(m.remove(42L, "w"))
+    assert(m.getOrElseUpdate(43L, "a") == "a")
+    assert(m.getOrElseUpdate(43L, "b") == "a")
+
+    for (k <- keys) assert(m.remove(k).nonEmpty)
+    assert(m.remove(Long.MaxValue).isEmpty)
+    assert(m.size == 1 && m.contains(43L), m)
+    m.clear()
+    assert(m.isEmpty)
+  }
+
+  def snapshots(): Unit = {
+    val m = LongTrieMap.from((0L until 1000L).map(i => i -> i.toInt))
+    val ro = m.readOnlySnapshot()
+    val rw = m.snapshot()
+    for (i <- 0L until 1000L) m.remove(i)
+    rw(5000L) = 5000
+    assert(m.isEmpty)
+    assert(ro.size == 1000)
+    assert(rw.size == 1001)
+    assert(ro.toMap == (0L until 1000L).map(i => i -> i.toInt).toMap)
+    try {
+      ro(1L) = 1
+      assert(false, "updated a read-only snapshot")
+    } catch {
+      case _: UnsupportedOperationException =>
+    }
+
+    // a writable snapshot of a read-only snapshot is independent of both
+    val m2 = LongTrieMap.from((0L until 1000L).map(i => i -> i.toInt))
+    val ro2 = m2.readOnlySnapshot()
+    val rw2 = ro2.snapshot()
+    for (i <- 0L until 1000L by 2) rw2.remove(i)
+    rw2(1L) = -1
+    rw2(5000L) = 5000
+    val expected = (0L until 1000L).map(i => i -> i.toInt).toMap
+    assert(ro2.toMap == expected)
+    assert(m2.toMap == expected)
+    assert(rw2.size == 501, rw2.size)
+    assert(rw2(1L) == -1)
+    m2(1L) = 42
+    assert(ro2(1L) == 1 && rw2(1L) == -1)
+    assert(!ro2.isEmpty && new LongTrieMap[Int].readOnlySnapshot().isEmpty)
+  }
+
+  def concurrentUpdates(): Unit = {
+    val m = new LongTrieMap[Int]
+    val threads = for (t <- 0 until 4) yield new Thread(() => {
+      for (i <- 0 until 10000) m(i.toLong * 4 + t) = t
+      for (i <- 0 until 10000 by 2) m.remove(i.toLong * 4 + t)
+    })
+    threads.foreach(_.start())
+    threads.foreach(_.join())
+    assert(m.size == 20000, m.size)
+    for ((k, v) <- m) assert(k % 4 == v && (k / 4) % 2 == 1, (k, v))
+  }
+}
@@ -0,0 +1,32 @@
+import scala.util.hashing.MurmurHash3
+
+// `arrayHash` must hash primitive arrays exactly like their boxed elements,
+// which is what `orderedHash` computes with the same seed.
+object Test {
+  def check[T](a: Array[T]): Unit = {
+    val expected = MurmurHash3.orderedHash(a.iterator.map(_.asInstanceOf[Any]), MurmurHash3.arraySeed)
+    assert(MurmurHash3.arrayHash(a) == expected, s"${a.toList}")
+  }
+
+  def main(args: Array[String]): Unit = {
+    for (n <- List(0, 1, 2, 3, 17)) {
+      check(Array.tabulate(n)(i => i * 31))
+      check(Array.tabulate(n)(i => i))                        // a range
+      check(Array.tabulate(n)(i => i.toLong << 33))
+      check(Array.tabulate(n)(i => i.toLong))
+      check(Array.tabulate(n)(i => i * 1.5))
+      check(Array.tabulate(n)(i => i.toDouble))
+      check(Array.tabulate(n)(i => i * 0.25f))
+      check(Array.tabulate(n)(i => ('a' + i).toChar))
+      check(Array.tabulate(n)(i => (i * 17).toByte))
+      check(Array.tabulate(n)(i => (i * 1000).toShort))
+      check(Array.tabulate(n)(i => i % 3 == 0))
+      check(Array.tabulate(n)(i => s"s$i"))
+      check(Array.fill(n)(()))
+    }
+    check(Array(Double.NaN, -0.0, 0.0, Double.PositiveInfinity))
+    check(Array(Float.NaN, -0.0f, 0.0f))
+    check(Array(Long.MinValue, Long.MaxValue, -1L))
+    check(Array[Any](1, 2L, 3.0, null, "x"))
+  }
+}
@@ -0,0 +1,34 @@
+// scalajs: --skip
+
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.atomic.LongAdder
+import scala.collection.concurrent.TrieMap
+
+object Test {
+
+  def main(args: Array[String]): Unit = {
+    val pool = new ForkJoinPool(4)
+    try {
+      val tm = TrieMap.from((0 until 100000).map(i => i -> i.toLong))
+
+      val count = new LongAdder
+      tm.parForeach(_ => count.increment(), pool)
+      assert(count.sum == 100000, count.sum)
+
+      assert(tm.parMapReduce[Long](_._2, _ + _, pool) == Some((0L until 100000L).sum))
+      assert(TrieMap.empty[Int, Long].parMapReduce[Long](_._2, _ + _, pool) == None)
+
+      val copy = TrieMap.empty[Int, Long]
+      copy.parPutAll(tm, pool)
+      assert(copy == tm)
+
+      assert(tm.parRemoveAll(_._1 % 2 == 0, pool) == 50000)
+      assert(tm.size == 50000 && tm.keysIterator.forall(_ % 2 == 1))
+
+      // collisions end up in list nodes
+      val collisions = new TrieMap[String, Int](util.hashing.Hashing.fromFunction(_.length), Equiv.universal)
+      for (i <- 0 until 1000) collisions(i.toString) = i
+      assert(collisions.parMapReduce[Int](_._2, _ + _) == Some((0 until 1000).sum))
+    } finally pool.shutdown()
+  }
+}